@@ -4,30 +4,37 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.text.Editable;
 import android.text.TextWatcher;
+import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.CheckBox;
 import android.widget.CompoundButton;
 import android.widget.EditText;
 import android.widget.LinearLayout;
-import android.widget.RadioButton;
 import android.widget.RadioGroup;
-import android.widget.ScrollView;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.Observer;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.split_basket.data.BillRepository;
+import com.example.split_basket.data.DebouncedSearch;
+import com.example.split_basket.data.ShoppingListRepository;
+import com.example.split_basket.split.SplitStrategies;
+import com.example.split_basket.split.SplitStrategy;
 import com.google.android.material.button.MaterialButton;
-import com.google.android.material.card.MaterialCardView;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class BillActivity extends AppCompatActivity {
@@ -35,17 +42,35 @@ public class BillActivity extends AppCompatActivity {
     private static final int REQUEST_CODE_BILL_DETAIL = 1001;
     private MaterialButton btnHome, btnInventory, btnList, btnBill;
     private BillRepository billStorage;
+    private BillListAdapter billListAdapter;
     private List<BillItem> billItems = new ArrayList<>();
+    private DebouncedSearch<BillItem> billSearch;
+    private List<BillItem> searchResults; // Null while not searching
+
+    // Members always offered in the form; whoever added purchased shopping items is offered after them
+    private static final String[] DEFAULT_MEMBERS = {"User1", "User2", "User3", "User4"};
 
     // UI element references
     private EditText inputBillName, inputTotalSpent;
     private RadioGroup radioSplitMethod;
-    private RadioButton radioEqual, radioCustom;
     private LinearLayout layoutEqualSplit, layoutCustomSplit;
+    private LinearLayout layoutEqualMembers, layoutCustomMembers;
     private TextView tvPerPersonAmount, tvCalculatedTotal;
-    private CheckBox checkBox1, checkBox2, checkBox3, checkBox4;
-    private CheckBox customCheckBox1, customCheckBox2, customCheckBox3, customCheckBox4;
-    private EditText editUser1Amount, editUser2Amount, editUser3Amount, editUser4Amount;
+
+    // One row per member in the equal and in the custom layout, same order as members
+    private final List<String> members = new ArrayList<>();
+    private final List<CheckBox> equalCheckBoxes = new ArrayList<>();
+    private final List<CheckBox> customCheckBoxes = new ArrayList<>();
+    private final List<EditText> customInputs = new ArrayList<>();
+    private TextWatcher previewWatcher;
+    private CompoundButton.OnCheckedChangeListener previewCheckListener;
+
+    // Split state; the arrays are reused for every recalculation while typing and grow with the members
+    private SplitStrategy strategy = SplitStrategies.EQUAL;
+    private final List<String> selectedMembers = new ArrayList<>();
+    private long[] weights = new long[DEFAULT_MEMBERS.length];
+    private long[] shares = new long[DEFAULT_MEMBERS.length];
+    private List<ShoppingItem> purchasedItems = Collections.emptyList();
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -60,16 +85,60 @@ public class BillActivity extends AppCompatActivity {
         billStorage = BillRepository.getInstance(this);
         billStorage.ensureSeedData();
 
-        // Use LiveData to observe bill data changes
-        billStorage.observeBills().observe(this, new Observer<List<BillItem>>() {
+        // Bill list: recycled cards, diffed off the main thread by ListAdapter
+        RecyclerView recyclerBills = findViewById(R.id.recyclerBills);
+        billListAdapter = new BillListAdapter(bill -> openBillDetail(
+                bill.getName(),
+                bill.getAmount(),
+                bill.getStatus(),
+                bill.getMethod(),
+                bill.getId()));
+        recyclerBills.setAdapter(billListAdapter);
+
+        // Use LiveData to observe bill data changes; the query already orders unpaid before paid
+        billStorage.observeBillsByStatus().observe(this, new Observer<List<BillItem>>() {
             @Override
             public void onChanged(List<BillItem> bills) {
                 billItems = bills;
-                hideStaticBillCards();
-                displayBills();
+                if (searchResults != null) {
+                    // Rerun the search so the changed bills show up in the results
+                    billSearch.refresh();
+                } else {
+                    billListAdapter.submitList(bills);
+                }
+            }
+        });
+
+        // Search narrows the cards to bills whose name or participants match, debounced while typing
+        billSearch = billStorage.newSearch(results -> {
+            searchResults = results;
+            billListAdapter.submitList(results);
+        });
+        EditText inputSearch = findViewById(R.id.inputSearchBills);
+        inputSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                String text = s.toString();
+                if (text.trim().isEmpty()) {
+                    billSearch.cancel();
+                    searchResults = null;
+                    billListAdapter.submitList(billItems);
+                } else {
+                    billSearch.setQuery(text);
+                }
             }
         });
 
+        findViewById(R.id.btnSettleUp).setOnClickListener(v -> showSettlement());
+
         // Bottom navigation
         btnHome = findViewById(R.id.btnHome);
         btnInventory = findViewById(R.id.btnInventory);
@@ -99,28 +168,29 @@ public class BillActivity extends AppCompatActivity {
         inputBillName = findViewById(R.id.inputBillName);
         inputTotalSpent = findViewById(R.id.inputTotalSpent);
         radioSplitMethod = findViewById(R.id.radioSplitMethod);
-        radioEqual = findViewById(R.id.radioEqual);
-        radioCustom = findViewById(R.id.radioCustom);
         layoutEqualSplit = findViewById(R.id.layoutEqualSplit);
         layoutCustomSplit = findViewById(R.id.layoutCustomSplit);
         tvPerPersonAmount = findViewById(R.id.tvPerPersonAmount);
         tvCalculatedTotal = findViewById(R.id.tvCalculatedTotal);
+        layoutEqualMembers = findViewById(R.id.layoutEqualMembers);
+        layoutCustomMembers = findViewById(R.id.layoutCustomMembers);
+
+        // Set listeners, then the member rows that use them
+        setupSplitListeners();
+        for (String member : DEFAULT_MEMBERS) {
+            addMember(member);
+        }
+        findViewById(R.id.btnAddMember).setOnClickListener(v -> showAddMemberDialog());
+
+        // Set payment method switching logic
+        radioSplitMethod.setOnCheckedChangeListener((group, checkedId) -> {
+            if (checkedId != View.NO_ID) {
+                selectStrategy(strategyForRadio(checkedId));
+            }
+        });
 
-        // Checkboxes for equal payment mode
-        checkBox1 = findViewById(R.id.checkBox1);
-        checkBox2 = findViewById(R.id.checkBox2);
-        checkBox3 = findViewById(R.id.checkBox3);
-        checkBox4 = findViewById(R.id.checkBox4);
-
-        // Checkboxes and input fields for custom payment mode
-        customCheckBox1 = findViewById(R.id.customCheckBox1);
-        customCheckBox2 = findViewById(R.id.customCheckBox2);
-        customCheckBox3 = findViewById(R.id.customCheckBox3);
-        customCheckBox4 = findViewById(R.id.customCheckBox4);
-        editUser1Amount = findViewById(R.id.editUser1Amount);
-        editUser2Amount = findViewById(R.id.editUser2Amount);
-        editUser3Amount = findViewById(R.id.editUser3Amount);
-        editUser4Amount = findViewById(R.id.editUser4Amount);
+        // Default to equal payment
+        radioSplitMethod.check(R.id.radioEqual);
 
         // Handle intent data from HomeActivity
         Intent intent = getIntent();
@@ -129,131 +199,173 @@ public class BillActivity extends AppCompatActivity {
             String billName = intent.getStringExtra(HomeActivity.EXTRA_BILL_NAME);
             String totalAmount = intent.getStringExtra(HomeActivity.EXTRA_BILL_TOTAL);
             String billDate = intent.getStringExtra(HomeActivity.EXTRA_BILL_DATE);
-            int selectedModeId = intent.getIntExtra(HomeActivity.EXTRA_BILL_MODE, R.id.rbEqual);
+            String mode = intent.getStringExtra(HomeActivity.EXTRA_BILL_MODE);
 
             // Fill UI fields
             if (billName != null) {
                 inputBillName.setText(billName);
             }
-            if (totalAmount != null) {
-                inputTotalSpent.setText(totalAmount);
-            }
             if (billDate != null) {
                 // There's currently no date input field in the UI; it will be used when
                 // creating the bill
             }
-            // Set payment method
-            if (selectedModeId == R.id.rbEqual) {
-                radioEqual.setChecked(true);
-            } else if (selectedModeId == R.id.rbByQuantity || selectedModeId == R.id.rbByItem) {
-                // The "split by quantity" and "split by item" modes don't exist in the current
-                // design; default to custom split
-                radioCustom.setChecked(true);
-            } else {
-                radioEqual.setChecked(true);
+            // Set payment method, then the total so a derived-total mode doesn't overwrite it
+            if (mode != null) {
+                radioSplitMethod.check(radioForStrategy(SplitStrategies.forMethod(mode)));
             }
-        }
-
-        // Set payment method switching logic
-        radioSplitMethod.setOnCheckedChangeListener((group, checkedId) -> {
-            String mode;
-            if (checkedId == R.id.radioEqual) {
-                mode = "Equal";
-                layoutEqualSplit.setVisibility(View.VISIBLE);
-                layoutCustomSplit.setVisibility(View.GONE);
-                inputTotalSpent.setEnabled(true); // Enable total amount input in equal mode
-            } else if (checkedId == R.id.radioCustom) {
-                mode = "Custom";
-                layoutEqualSplit.setVisibility(View.GONE);
-                layoutCustomSplit.setVisibility(View.VISIBLE);
-                inputTotalSpent.setEnabled(false); // Disable total amount input in custom mode, calculated
-                // automatically by the system
-            } else {
-                mode = "Equal"; // Default
-                layoutEqualSplit.setVisibility(View.VISIBLE);
-                layoutCustomSplit.setVisibility(View.GONE);
+            if (totalAmount != null) {
+                inputTotalSpent.setText(totalAmount);
             }
-            group.setTag(mode); // store current mode for later use
-        });
-
-        // Set listeners
-        setupEqualSplitListeners();
-        setupCustomSplitListeners();
-
-        // Default to equal payment
-        radioEqual.setChecked(true);
+        }
 
         findViewById(R.id.btnCreateBill).setOnClickListener(v -> {
             createNewBill();
         });
     }
 
-    // Load bills from storage
-    private void loadBillsFromStorage() {
-        new Thread(() -> {
-            try {
-                List<BillItem> loadedBills = billStorage.getAllBills();
+    private SplitStrategy strategyForRadio(int checkedId) {
+        if (checkedId == R.id.radioCustom) {
+            return SplitStrategies.CUSTOM;
+        } else if (checkedId == R.id.radioPercentage) {
+            return SplitStrategies.PERCENTAGE;
+        } else if (checkedId == R.id.radioShares) {
+            return SplitStrategies.SHARES;
+        } else if (checkedId == R.id.radioByItem) {
+            return SplitStrategies.BY_ITEM;
+        } else if (checkedId == R.id.radioByQuantity) {
+            return SplitStrategies.BY_QUANTITY;
+        }
+        return SplitStrategies.EQUAL;
+    }
 
-                runOnUiThread(() -> {
-                    billItems = loadedBills;
-                    // Hide static bill cards defined in XML
-                    hideStaticBillCards();
+    private int radioForStrategy(SplitStrategy strategy) {
+        if (strategy == SplitStrategies.CUSTOM) {
+            return R.id.radioCustom;
+        } else if (strategy == SplitStrategies.PERCENTAGE) {
+            return R.id.radioPercentage;
+        } else if (strategy == SplitStrategies.SHARES) {
+            return R.id.radioShares;
+        } else if (strategy == SplitStrategies.BY_ITEM) {
+            return R.id.radioByItem;
+        } else if (strategy == SplitStrategies.BY_QUANTITY) {
+            return R.id.radioByQuantity;
+        }
+        return R.id.radioEqual;
+    }
 
-                    // Dynamically load bills
-                    displayBills();
-                });
-            } catch (Exception e) {
-                e.printStackTrace();
-                runOnUiThread(
-                        () -> Toast.makeText(BillActivity.this, "Failed to load bills", Toast.LENGTH_SHORT).show());
-            }
-        }).start();
+    // Per-member inputs are amounts, percentages or shares; the other strategies only pick members
+    private boolean usesMemberInputs(SplitStrategy strategy) {
+        return strategy == SplitStrategies.CUSTOM
+                || strategy == SplitStrategies.PERCENTAGE
+                || strategy == SplitStrategies.SHARES;
     }
 
-    // Hide static bill cards defined in XML
-    // Set listeners for equal split payment mode
-    private void setupEqualSplitListeners() {
-        // Listen for changes in total amount input
-        inputTotalSpent.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
-            }
+    private void selectStrategy(SplitStrategy selected) {
+        strategy = selected;
+        boolean memberInputs = usesMemberInputs(selected);
+        layoutEqualSplit.setVisibility(memberInputs ? View.GONE : View.VISIBLE);
+        layoutCustomSplit.setVisibility(memberInputs ? View.VISIBLE : View.GONE);
+        // Custom mode calculates the total from the member amounts
+        inputTotalSpent.setEnabled(!selected.isTotalDerived());
+        String hint = selected == SplitStrategies.PERCENTAGE ? "%"
+                : selected == SplitStrategies.SHARES ? "shares" : "0.00";
+        for (EditText input : customInputs) {
+            input.setHint(hint);
+        }
+        if (SplitStrategies.usesShoppingItems(selected)) {
+            loadPurchasedItems();
+        }
+        updateSplitPreview();
+    }
 
-            @Override
-            public void onTextChanged(CharSequence s, int start, int before, int count) {
+    // Item based splits weigh members by what they bought, so everyone who added a purchased item is offered
+    private void loadPurchasedItems() {
+        ShoppingListRepository.getInstance(this).getPurchasedItems(items -> {
+            purchasedItems = items;
+            for (ShoppingItem item : items) {
+                addMember(item.getAddedBy());
             }
-
-            @Override
-            public void afterTextChanged(Editable s) {
-                calculatePerPersonAmount();
+            if (SplitStrategies.usesShoppingItems(strategy) && !anyMemberChecked()) {
+                // Preselect the buyers, the only members an item based split can charge
+                SplitStrategies.weigh(strategy, purchasedItems, members, weights);
+                for (int i = 0; i < members.size(); i++) {
+                    equalCheckBoxes.get(i).setChecked(weights[i] > 0);
+                }
             }
+            updateSplitPreview();
         });
+    }
 
-        // Listen for changes in member selection
-        CompoundButton.OnCheckedChangeListener checkListener = new CompoundButton.OnCheckedChangeListener() {
-            @Override
-            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
-                calculatePerPersonAmount();
+    /**
+     * Add a row for the member to both member layouts, unless one with the same name exists
+     */
+    private void addMember(String name) {
+        String trimmed = name == null ? "" : name.trim();
+        if (trimmed.isEmpty())
+            return;
+        String key = ItemNames.key(trimmed);
+        for (String member : members) {
+            if (ItemNames.key(member).equals(key))
+                return;
+        }
+        members.add(trimmed);
+        if (weights.length < members.size()) {
+            weights = Arrays.copyOf(weights, members.size() * 2);
+            shares = Arrays.copyOf(shares, members.size() * 2);
+        }
+
+        LayoutInflater inflater = LayoutInflater.from(this);
+        View equalRow = inflater.inflate(R.layout.item_member_check, layoutEqualMembers, false);
+        ((TextView) equalRow.findViewById(R.id.textMemberName)).setText(trimmed);
+        CheckBox equalCheckBox = equalRow.findViewById(R.id.checkMember);
+        equalCheckBox.setOnCheckedChangeListener(previewCheckListener);
+        layoutEqualMembers.addView(equalRow);
+        equalCheckBoxes.add(equalCheckBox);
+
+        View customRow = inflater.inflate(R.layout.item_member_amount, layoutCustomMembers, false);
+        ((TextView) customRow.findViewById(R.id.textMemberName)).setText(trimmed);
+        CheckBox customCheckBox = customRow.findViewById(R.id.checkMember);
+        EditText input = customRow.findViewById(R.id.inputMemberAmount);
+        if (!customInputs.isEmpty()) {
+            input.setHint(customInputs.get(0).getHint());
+        }
+        // Each custom checkbox controls the availability of its input field
+        customCheckBox.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            input.setEnabled(isChecked);
+            if (!isChecked) {
+                input.setText("");
             }
-        };
+            updateSplitPreview();
+        });
+        input.addTextChangedListener(previewWatcher);
+        layoutCustomMembers.addView(customRow);
+        customCheckBoxes.add(customCheckBox);
+        customInputs.add(input);
+    }
 
-        checkBox1.setOnCheckedChangeListener(checkListener);
-        checkBox2.setOnCheckedChangeListener(checkListener);
-        checkBox3.setOnCheckedChangeListener(checkListener);
-        checkBox4.setOnCheckedChangeListener(checkListener);
+    private boolean anyMemberChecked() {
+        for (CheckBox checkBox : equalCheckBoxes) {
+            if (checkBox.isChecked())
+                return true;
+        }
+        return false;
+    }
+
+    private void showAddMemberDialog() {
+        EditText input = new EditText(this);
+        input.setHint(R.string.member_name_hint);
+        input.setSingleLine(true);
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(R.string.add_member)
+                .setView(input)
+                .setPositiveButton("Add", (dialog, which) -> addMember(input.getText().toString()))
+                .setNegativeButton("Cancel", null)
+                .show();
     }
 
-    // Set listeners for custom split payment mode
-    private void setupCustomSplitListeners() {
-        // Set listener for each checkbox to control the availability of the
-        // corresponding amount input field
-        setupCustomMemberListener(customCheckBox1, editUser1Amount);
-        setupCustomMemberListener(customCheckBox2, editUser2Amount);
-        setupCustomMemberListener(customCheckBox3, editUser3Amount);
-        setupCustomMemberListener(customCheckBox4, editUser4Amount);
-
-        // Set change listeners for each amount input field to calculate total amount
-        TextWatcher amountTextWatcher = new TextWatcher() {
+    // Recalculate the preview whenever the total, the members or their inputs change
+    private void setupSplitListeners() {
+        previewWatcher = new TextWatcher() {
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {
             }
@@ -264,88 +376,92 @@ public class BillActivity extends AppCompatActivity {
 
             @Override
             public void afterTextChanged(Editable s) {
-                calculateCustomTotalAmount();
+                updateSplitPreview();
             }
         };
-
-        editUser1Amount.addTextChangedListener(amountTextWatcher);
-        editUser2Amount.addTextChangedListener(amountTextWatcher);
-        editUser3Amount.addTextChangedListener(amountTextWatcher);
-        editUser4Amount.addTextChangedListener(amountTextWatcher);
+        inputTotalSpent.addTextChangedListener(previewWatcher);
+        previewCheckListener = (buttonView, isChecked) -> updateSplitPreview();
     }
 
-    // Set listeners for member selection in custom mode
-    private void setupCustomMemberListener(CheckBox checkBox, EditText editText) {
-        checkBox.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
-            @Override
-            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
-                editText.setEnabled(isChecked);
-                if (!isChecked) {
-                    editText.setText("");
+    /**
+     * Fill selectedMembers and weights from the form for the current strategy
+     *
+     * @return number of selected members
+     */
+    private int collectMembers() {
+        selectedMembers.clear();
+        if (usesMemberInputs(strategy)) {
+            for (int i = 0; i < members.size(); i++) {
+                if (customCheckBoxes.get(i).isChecked()) {
+                    weights[selectedMembers.size()] = getHundredthsFromEditText(customInputs.get(i));
+                    selectedMembers.add(members.get(i));
                 }
-                calculateCustomTotalAmount();
             }
-        });
-    }
-
-    // Calculate amount per person in equal split payment mode
-    private void calculatePerPersonAmount() {
-        String totalSpentStr = inputTotalSpent.getText().toString().trim();
-        if (totalSpentStr.isEmpty()) {
-            tvPerPersonAmount.setText("Per person: ¥0.00");
-            return;
+        } else {
+            for (int i = 0; i < members.size(); i++) {
+                if (equalCheckBoxes.get(i).isChecked()) {
+                    selectedMembers.add(members.get(i));
+                }
+            }
+            if (SplitStrategies.usesShoppingItems(strategy)) {
+                SplitStrategies.weigh(strategy, purchasedItems, selectedMembers, weights);
+            }
         }
+        return selectedMembers.size();
+    }
 
-        double totalSpent;
+    // Split the current form with the selected strategy and show the shares
+    private void updateSplitPreview() {
+        int count = collectMembers();
+        Money total = strategy.isTotalDerived() ? Money.zero(Money.DEFAULT_CURRENCY)
+                : Money.parseOrZero(inputTotalSpent.getText().toString().trim());
+        long splitTotal;
         try {
-            totalSpent = Double.parseDouble(totalSpentStr);
-        } catch (NumberFormatException e) {
-            tvPerPersonAmount.setText("Per person: ¥0.00");
-            return;
+            splitTotal = count > 0 ? strategy.split(total.getMinor(), weights, count, shares) : 0;
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            count = 0;
+            splitTotal = 0;
         }
 
-        // Calculate the number of selected members
-        int checkedCount = 0;
-        if (checkBox1.isChecked())
-            checkedCount++;
-        if (checkBox2.isChecked())
-            checkedCount++;
-        if (checkBox3.isChecked())
-            checkedCount++;
-        if (checkBox4.isChecked())
-            checkedCount++;
-
-        if (checkedCount > 0) {
-            double perPerson = totalSpent / checkedCount;
-            tvPerPersonAmount.setText(String.format("Per person: ¥%.2f", perPerson));
+        if (strategy == SplitStrategies.EQUAL) {
+            // Largest share; shares differ by at most one cent
+            long perPerson = count > 0 ? shares[0] : 0;
+            tvPerPersonAmount.setText("Per person: ¥" + Money.of(perPerson, total.getCurrency()).toDecimalString());
+        } else if (!usesMemberInputs(strategy)) {
+            tvPerPersonAmount.setText(formatShares(count, total.getCurrency()));
+        } else if (strategy.isTotalDerived()) {
+            String totalText = Money.of(splitTotal, total.getCurrency()).toDecimalString();
+            tvCalculatedTotal.setText("Total calculated: ¥" + totalText);
+            // Update total amount input field (even though it's disabled in custom mode)
+            if (!totalText.contentEquals(inputTotalSpent.getText())) {
+                inputTotalSpent.setText(totalText);
+            }
         } else {
-            tvPerPersonAmount.setText("Per person: ¥0.00");
+            tvCalculatedTotal.setText(formatShares(count, total.getCurrency()));
         }
     }
 
-    // Calculate total amount in custom split payment mode
-    private void calculateCustomTotalAmount() {
-        double total = 0;
-
-        total += getAmountFromEditText(editUser1Amount);
-        total += getAmountFromEditText(editUser2Amount);
-        total += getAmountFromEditText(editUser3Amount);
-        total += getAmountFromEditText(editUser4Amount);
-
-        tvCalculatedTotal.setText(String.format("Total calculated: ¥%.2f", total));
-
-        // Update total amount input field (even though it's disabled in custom mode)
-        inputTotalSpent.setText(String.format("%.2f", total));
+    private String formatShares(int count, String currency) {
+        if (count == 0)
+            return "Per person: ¥0.00";
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0)
+                text.append("   ");
+            text.append(selectedMembers.get(i)).append(": ¥")
+                    .append(Money.of(shares[i], currency).toDecimalString());
+        }
+        return text.toString();
     }
 
-    // Get amount from EditText
-    private double getAmountFromEditText(EditText editText) {
+    // Amount, percentage or share count in hundredths, so "12.5" is 1250
+    private long getHundredthsFromEditText(EditText editText) {
         String text = editText.getText().toString().trim();
         if (text.isEmpty()) {
             return 0;
         }
         try {
-            return Double.parseDouble(text);
+            return Money.parse(text).getMinor();
         } catch (NumberFormatException e) {
             return 0;
         }
@@ -354,8 +470,6 @@ public class BillActivity extends AppCompatActivity {
     // Create a new bill
     private void createNewBill() {
         String name = inputBillName.getText().toString().trim();
-        Object modeObj = radioSplitMethod.getTag();
-        String mode = modeObj instanceof String ? (String) modeObj : "Equal"; // default to Equal
 
         // Validate input
         if (name.isEmpty()) {
@@ -368,113 +482,63 @@ public class BillActivity extends AppCompatActivity {
         String creationDate = sdf.format(new Date());
 
         try {
-            String total;
+            int count = collectMembers();
+            if (count == 0) {
+                Toast.makeText(this, "Please select at least one member", Toast.LENGTH_SHORT).show();
+                return;
+            }
 
-            if (radioEqual.isChecked()) {
-                // Equal split payment mode
-                total = inputTotalSpent.getText().toString().trim();
-                if (total.isEmpty()) {
+            Money total = Money.zero(Money.DEFAULT_CURRENCY);
+            if (!strategy.isTotalDerived()) {
+                String totalText = inputTotalSpent.getText().toString().trim();
+                if (totalText.isEmpty()) {
                     Toast.makeText(this, "Please enter total amount", Toast.LENGTH_SHORT).show();
                     return;
                 }
-
-                // Check if there are selected members
-                CheckBox[] checkBoxes = new CheckBox[]{
-                        checkBox1, checkBox2, checkBox3, checkBox4
-                };
-
-                boolean hasMembers = false;
-                for (CheckBox cb : checkBoxes) {
-                    if (cb != null && cb.isChecked()) {
-                        hasMembers = true;
-                        break;
-                    }
-                }
-
-                if (!hasMembers) {
-                    Toast.makeText(this, "Please select at least one member", Toast.LENGTH_SHORT).show();
-                    return;
-                }
-
-                // Create new bill object
-                String billId = UUID.randomUUID().toString();
-                BillItem newBill = new BillItem(billId, name, total, "Unpaid", mode, creationDate);
-
-                // Add selected participants
-                String[] participantNames = {"User1", "User2", "User3", "User4"};
-
-                for (int i = 0; i < checkBoxes.length; i++) {
-                    if (checkBoxes[i] != null && checkBoxes[i].isChecked()) {
-                        newBill.addParticipant(participantNames[i]);
-                    }
-                }
-
-                // Save to storage
-                billStorage.addBill(newBill);
-            } else {
-                // Custom split payment mode
-                // Calculate total amount
-                double totalAmount = 0;
-
-                // Create new bill object
-                String billId = UUID.randomUUID().toString();
-                BillItem newBill = new BillItem(billId, name, String.format("%.2f", totalAmount), "Unpaid", mode,
-                        creationDate);
-
-                // Add selected participants and amounts
-                if (customCheckBox1.isChecked()) {
-                    double amount = getAmountFromEditText(editUser1Amount);
-                    if (amount <= 0) {
-                        Toast.makeText(this, "Please enter valid amount for User1", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-                    newBill.addParticipant("User1");
-                    newBill.addCustomAmount(amount);
-                    totalAmount += amount;
-                }
-                if (customCheckBox2.isChecked()) {
-                    double amount = getAmountFromEditText(editUser2Amount);
-                    if (amount <= 0) {
-                        Toast.makeText(this, "Please enter valid amount for User2", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-                    newBill.addParticipant("User2");
-                    newBill.addCustomAmount(amount);
-                    totalAmount += amount;
-                }
-                if (customCheckBox3.isChecked()) {
-                    double amount = getAmountFromEditText(editUser3Amount);
-                    if (amount <= 0) {
-                        Toast.makeText(this, "Please enter valid amount for User3", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-                    newBill.addParticipant("User3");
-                    newBill.addCustomAmount(amount);
-                    totalAmount += amount;
-                }
-                if (customCheckBox4.isChecked()) {
-                    double amount = getAmountFromEditText(editUser4Amount);
-                    if (amount <= 0) {
-                        Toast.makeText(this, "Please enter valid amount for User4", Toast.LENGTH_SHORT).show();
+                total = Money.parse(totalText);
+            }
+            if (usesMemberInputs(strategy)) {
+                for (int i = 0; i < count; i++) {
+                    if (weights[i] <= 0) {
+                        Toast.makeText(this, "Please enter valid amount for " + selectedMembers.get(i),
+                                Toast.LENGTH_SHORT).show();
                         return;
                     }
-                    newBill.addParticipant("User4");
-                    newBill.addCustomAmount(amount);
-                    totalAmount += amount;
                 }
+            }
 
-                if (totalAmount <= 0) {
-                    Toast.makeText(this, "Please select at least one member with amount", Toast.LENGTH_SHORT).show();
-                    return;
-                }
+            if (SplitStrategies.usesShoppingItems(strategy) && !hasWeight(count)) {
+                Toast.makeText(this, R.string.error_nothing_bought_by_members, Toast.LENGTH_SHORT).show();
+                return;
+            }
 
-                // Update bill total amount
-                newBill.setAmount(String.format("%.2f", totalAmount));
+            long billTotal;
+            try {
+                billTotal = strategy.split(total.getMinor(), weights, count, shares);
+            } catch (IllegalArgumentException e) {
+                Toast.makeText(this, e.getMessage(), Toast.LENGTH_SHORT).show();
+                return;
+            }
+            if (billTotal <= 0) {
+                Toast.makeText(this, "Please select at least one member with amount", Toast.LENGTH_SHORT).show();
+                return;
+            }
 
-                // Save to storage
-                billStorage.addBill(newBill);
+            // Create new bill object; equal splits are recomputed from the total, all others keep their shares
+            String billId = UUID.randomUUID().toString();
+            BillItem newBill = new BillItem(billId, name, billTotal, total.getCurrency(), "Unpaid",
+                    strategy.getMethod(), creationDate);
+            boolean fixedShares = SplitStrategies.hasFixedShares(strategy.getMethod());
+            for (int i = 0; i < count; i++) {
+                newBill.addParticipant(selectedMembers.get(i));
+                if (fixedShares) {
+                    newBill.addCustomAmount(shares[i]);
+                }
             }
 
+            // Save to storage
+            billStorage.addBill(newBill);
+
             // Reset form
             resetForm();
 
@@ -485,111 +549,31 @@ public class BillActivity extends AppCompatActivity {
         }
     }
 
+    private boolean hasWeight(int count) {
+        for (int i = 0; i < count; i++) {
+            if (weights[i] > 0)
+                return true;
+        }
+        return false;
+    }
+
     // Reset form
     private void resetForm() {
         inputBillName.setText("");
         inputTotalSpent.setText("");
-        radioSplitMethod.clearCheck();
-        radioEqual.setChecked(true); // Default to equal split payment
-
-        // Reset checkboxes for equal split payment mode
-        checkBox1.setChecked(false);
-        checkBox2.setChecked(false);
-        checkBox3.setChecked(false);
-        checkBox4.setChecked(false);
-
-        // Reset checkboxes and input fields for custom split payment mode
-        customCheckBox1.setChecked(false);
-        customCheckBox2.setChecked(false);
-        customCheckBox3.setChecked(false);
-        customCheckBox4.setChecked(false);
-        editUser1Amount.setText("");
-        editUser2Amount.setText("");
-        editUser3Amount.setText("");
-        editUser4Amount.setText("");
 
-        // Reset display text
-        tvPerPersonAmount.setText("Per person: ¥0.00");
-        tvCalculatedTotal.setText("Total calculated: ¥0.00");
-    }
-
-    private void hideStaticBillCards() {
-        View cardUnpaidBill = findViewById(R.id.cardUnpaidBill);
-        View cardPaidBill1 = findViewById(R.id.cardPaidBill1);
-        View cardPaidBill2 = findViewById(R.id.cardPaidBill2);
-
-        if (cardUnpaidBill != null)
-            cardUnpaidBill.setVisibility(View.GONE);
-        if (cardPaidBill1 != null)
-            cardPaidBill1.setVisibility(View.GONE);
-        if (cardPaidBill2 != null)
-            cardPaidBill2.setVisibility(View.GONE);
-    }
-
-    // Display all bills
-    private void displayBills() {
-        try {
-            // Get bill list container
-            View scrollContent = findViewById(R.id.scrollContent);
-            if (scrollContent instanceof ScrollView) {
-                View child = ((ScrollView) scrollContent).getChildAt(0);
-                if (child instanceof LinearLayout scrollLayout) {
-
-                    // First remove dynamically added bills (keep title and creation area)
-                    removeDynamicBills(scrollLayout);
-
-                    // Find recent bills title
-                    int recentBillsTitleIndex = -1;
-                    for (int i = 0; i < scrollLayout.getChildCount(); i++) {
-                        View view = scrollLayout.getChildAt(i);
-                        if (view instanceof TextView && "Recent bills".equals(((TextView) view).getText().toString())) {
-                            recentBillsTitleIndex = i;
-                            break;
-                        }
-                    }
-
-                    if (recentBillsTitleIndex != -1) {
-                        // First add unpaid bills
-                        List<BillItem> unpaidBills = billStorage.getUnpaidBills();
-                        for (BillItem bill : unpaidBills) {
-                            MaterialCardView card = createBillCard(bill);
-                            scrollLayout.addView(card, recentBillsTitleIndex + 1);
-                            recentBillsTitleIndex++;
-                        }
-
-                        // Then add paid bills
-                        List<BillItem> paidBills = billStorage.getPaidBills();
-                        for (BillItem bill : paidBills) {
-                            MaterialCardView card = createBillCard(bill);
-                            scrollLayout.addView(card, recentBillsTitleIndex + 1);
-                            recentBillsTitleIndex++;
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Failed to display bills", Toast.LENGTH_SHORT).show();
+        // Reset member checkboxes and input fields
+        for (int i = 0; i < members.size(); i++) {
+            equalCheckBoxes.get(i).setChecked(false);
+            customCheckBoxes.get(i).setChecked(false);
+            customInputs.get(i).setText("");
         }
-    }
 
-    // Remove dynamically added bill cards
-    private void removeDynamicBills(LinearLayout layout) {
-        List<View> viewsToRemove = new ArrayList<>();
-
-        for (int i = 0; i < layout.getChildCount(); i++) {
-            View view = layout.getChildAt(i);
-            // Mark dynamically added bill cards to remove
-            if (view instanceof MaterialCardView &&
-                    view.getTag() != null && "dynamic_bill_card".equals(view.getTag().toString())) {
-                viewsToRemove.add(view);
-            }
-        }
+        radioSplitMethod.check(R.id.radioEqual); // Default to equal split payment
 
-        // Remove all marked views
-        for (View view : viewsToRemove) {
-            layout.removeView(view);
-        }
+        // Reset display text
+        tvPerPersonAmount.setText("Per person: ¥0.00");
+        tvCalculatedTotal.setText("Total calculated: ¥0.00");
     }
 
     private void openBillDetail(String name, String amount, String status, String method, String billId) {
@@ -602,98 +586,10 @@ public class BillActivity extends AppCompatActivity {
         startActivityForResult(intent, REQUEST_CODE_BILL_DETAIL);
     }
 
-    // Create bill card
-    private MaterialCardView createBillCard(BillItem bill) {
-        MaterialCardView card = new MaterialCardView(this);
-        card.setTag("dynamic_bill_card"); // Mark as dynamically created card
-
-        // Set card properties to match those defined in XML
-        LinearLayout.LayoutParams cardParams = new LinearLayout.LayoutParams(
-                LinearLayout.LayoutParams.MATCH_PARENT,
-                LinearLayout.LayoutParams.WRAP_CONTENT);
-        cardParams.setMargins(0, 0, 0, 8); // Bottom margin
-        card.setLayoutParams(cardParams);
-        card.setUseCompatPadding(true);
-        card.setCardElevation(1);
-
-        // Create inner layout
-        LinearLayout mainLayout = new LinearLayout(this);
-        mainLayout.setLayoutParams(new LinearLayout.LayoutParams(
-                LinearLayout.LayoutParams.MATCH_PARENT,
-                LinearLayout.LayoutParams.WRAP_CONTENT));
-        mainLayout.setOrientation(LinearLayout.HORIZONTAL);
-        mainLayout.setPadding(12, 12, 12, 12);
-
-        // Left layout (bill name and amount)
-        LinearLayout leftLayout = new LinearLayout(this);
-        LinearLayout.LayoutParams leftParams = new LinearLayout.LayoutParams(
-                0,
-                LinearLayout.LayoutParams.WRAP_CONTENT,
-                1f);
-        leftLayout.setLayoutParams(leftParams);
-        leftLayout.setOrientation(LinearLayout.VERTICAL);
-
-        // Bill name
-        TextView nameTv = new TextView(this);
-        nameTv.setLayoutParams(new LinearLayout.LayoutParams(
-                LinearLayout.LayoutParams.WRAP_CONTENT,
-                LinearLayout.LayoutParams.WRAP_CONTENT));
-        nameTv.setText(bill.getName());
-        nameTv.setTypeface(null, android.graphics.Typeface.BOLD);
-        nameTv.setTextSize(16);
-
-        // Bill amount
-        TextView amountTv = new TextView(this);
-        amountTv.setLayoutParams(new LinearLayout.LayoutParams(
-                LinearLayout.LayoutParams.WRAP_CONTENT,
-                LinearLayout.LayoutParams.WRAP_CONTENT));
-        amountTv.setText(bill.getAmount());
-        amountTv.setTextSize(15);
-        amountTv.setTypeface(null, android.graphics.Typeface.BOLD);
-
-        leftLayout.addView(nameTv);
-        leftLayout.addView(amountTv);
-
-        // Status text
-        TextView statusTv = new TextView(this);
-        statusTv.setLayoutParams(new LinearLayout.LayoutParams(
-                LinearLayout.LayoutParams.WRAP_CONTENT,
-                LinearLayout.LayoutParams.WRAP_CONTENT));
-
-        // Display corresponding English text based on status and set color
-        String status = bill.getStatus();
-        if ("Paid".equals(status)) {
-            statusTv.setText("Paid");
-            statusTv.setTextColor(getResources().getColor(android.R.color.holo_green_dark));
-        } else if ("Unpaid".equals(status)) {
-            statusTv.setText("Unpaid");
-            statusTv.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
-        } else {
-            statusTv.setText(status);
-        }
-        statusTv.setTypeface(null, android.graphics.Typeface.BOLD);
-
-        mainLayout.addView(leftLayout);
-        mainLayout.addView(statusTv);
-
-        card.addView(mainLayout);
-
-        // Set click event for all bills to view details
-        card.setClickable(true);
-        card.setOnClickListener(v -> {
-            // Ensure to pass English status value
-            String currentStatus = bill.getStatus();
-            String englishStatus = currentStatus;
-
-            openBillDetail(
-                    bill.getName(),
-                    bill.getAmount(),
-                    englishStatus,
-                    bill.getMethod(),
-                    bill.getId());
-        });
-
-        return card;
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        billSearch.cancel();
     }
 
     @Override
@@ -704,38 +600,26 @@ public class BillActivity extends AppCompatActivity {
             String billId = data.getStringExtra(BillDetailActivity.EXTRA_BILL_ID);
 
             if (resultCode == BillDetailActivity.RESULT_BILL_PAID) {
-                // Update payment status in UI
+                // Update payment status; the list refreshes through the LiveData observer
                 updateBillStatus(billId);
-            } else if (resultCode == RESULT_OK) {
-                // Bill deleted, reload and display bill list
-                loadBillsFromStorage();
-                displayBills();
             }
+            // A deleted bill (RESULT_OK) is removed from the list by the LiveData observer
         }
     }
 
     private void updateBillStatus(String billId) {
-        try {
-            // Find and update bill from storage
-            BillItem bill = billStorage.getBillById(billId);
-            if (bill != null) {
-                bill.setStatus("Paid");
-                billStorage.updateBill(bill);
-
-                // Update UI
-                displayBills();
+        // Find and update bill from storage
+        billStorage.getBillById(billId, bill -> {
+            try {
+                if (bill != null) {
+                    bill.setStatus("Paid");
+                    billStorage.updateBill(bill);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+                Toast.makeText(this, "Error updating bill status", Toast.LENGTH_SHORT).show();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error updating bill status", Toast.LENGTH_SHORT).show();
-        }
-    }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // Reload bill data every time returning to page to ensure data consistency
-        loadBillsFromStorage();
+        });
     }
 
     // Helper method: Set margin
@@ -749,6 +633,28 @@ public class BillActivity extends AppCompatActivity {
         }
     }
 
+    // Settle-up transfers come straight from the balance ledger, no bill scan needed
+    private void showSettlement() {
+        billStorage.getSettlement(settlement -> {
+            StringBuilder message = new StringBuilder();
+            for (Map.Entry<String, List<SettlementEngine.Transfer>> entry : settlement.entrySet()) {
+                for (SettlementEngine.Transfer transfer : entry.getValue()) {
+                    if (message.length() > 0)
+                        message.append('\n');
+                    message.append(transfer.from()).append(" pays ").append(transfer.to()).append("  ")
+                            .append(Money.of(transfer.amountMinor(), entry.getKey()).format());
+                }
+            }
+            if (message.length() == 0)
+                message.append("All settled");
+            new MaterialAlertDialogBuilder(this)
+                    .setTitle(R.string.settle_up)
+                    .setMessage(message)
+                    .setPositiveButton("OK", null)
+                    .show();
+        });
+    }
+
     private void updateButtonStates(MaterialButton selectedButton) {
         btnHome.setChecked(false);
         btnInventory.setChecked(false);
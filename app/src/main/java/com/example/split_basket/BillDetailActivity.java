@@ -12,9 +12,9 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.split_basket.data.BillRepository;
+import com.example.split_basket.split.SplitStrategies;
 import com.google.android.material.button.MaterialButton;
 
-import java.text.DecimalFormat;
 import java.util.List;
 
 public class BillDetailActivity extends AppCompatActivity {
@@ -25,13 +25,13 @@ public class BillDetailActivity extends AppCompatActivity {
     public static final String EXTRA_BILL_METHOD = "bill_method";
     public static final String EXTRA_BILL_ID = "bill_id";
     public static final int RESULT_BILL_PAID = 1001;
-    // For formatting amount display
-    private final DecimalFormat df = new DecimalFormat("0.00");
     private String billId;
     private boolean isPaid = false;
     private BillRepository billStorage;
     private BillItem currentBill;
     private boolean isCustomAmountMode = false;
+    // Every method but Equal stores each participant's share, which may legitimately be 0
+    private boolean hasFixedShares = false;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -73,158 +73,177 @@ public class BillDetailActivity extends AppCompatActivity {
 
             isPaid = "Paid".equals(billStatus);
 
-            // Get complete bill information from storage
-            currentBill = billStorage.getBillById(billId);
-            if (currentBill == null) {
-                // If not in storage, create a new one
-                currentBill = new BillItem(billId, billName, billAmount, billStatus, billMethod,
-                        new java.text.SimpleDateFormat("yyyy-MM-dd").format(new java.util.Date()));
-            }
+            // Get complete bill information from storage off the main thread
+            final String fallbackName = billName;
+            final String fallbackAmount = billAmount;
+            final String fallbackStatus = billStatus;
+            final String fallbackMethod = billMethod;
+            billStorage.getBillById(billId, storedBill -> {
+                if (isFinishing() || isDestroyed())
+                    return;
+                try {
+                    currentBill = storedBill;
+                    if (currentBill == null) {
+                        // If not in storage, create a new one
+                        currentBill = new BillItem(billId, fallbackName, fallbackAmount, fallbackStatus,
+                                fallbackMethod, new java.text.SimpleDateFormat("yyyy-MM-dd").format(new java.util.Date()));
+                    }
+                    bindBill();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    Toast.makeText(this, "Error loading bill details", Toast.LENGTH_SHORT).show();
+                    finish(); // Close page on error
+                }
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+            Toast.makeText(this, "Error loading bill details", Toast.LENGTH_SHORT).show();
+            finish(); // Close page on error
+        }
+    }
 
-            // Check if it is a custom amount mode
-            isCustomAmountMode = "Custom".equals(currentBill.getMethod());
-
-            // Display bill information
-            TextView tvBillName = findViewById(R.id.tvBillName);
-            TextView tvBillAmount = findViewById(R.id.tvBillAmount);
-            TextView tvPaymentStatus = findViewById(R.id.tvPaymentStatus);
-            TextView tvSplitMethod = findViewById(R.id.tvSplitMethod);
-
-            // Safely set text
-            if (tvBillName != null)
-                tvBillName.setText(currentBill.getName());
-            if (tvBillAmount != null) {
-                String amount = currentBill.getAmount();
-                // Ensure RMB symbol is displayed
+    // Display the loaded bill and wire up the actions
+    private void bindBill() {
+        // Check if it is a custom amount mode
+        isCustomAmountMode = SplitStrategies.METHOD_CUSTOM.equals(currentBill.getMethod());
+        hasFixedShares = SplitStrategies.hasFixedShares(currentBill.getMethod());
+
+        // Display bill information
+        TextView tvBillName = findViewById(R.id.tvBillName);
+        TextView tvBillAmount = findViewById(R.id.tvBillAmount);
+        TextView tvPaymentStatus = findViewById(R.id.tvPaymentStatus);
+        TextView tvSplitMethod = findViewById(R.id.tvSplitMethod);
+
+        // Safely set text
+        if (tvBillName != null)
+            tvBillName.setText(currentBill.getName());
+        if (tvBillAmount != null) {
+            String amount = currentBill.getAmount();
+            // Ensure RMB symbol is displayed
+            if (!amount.startsWith("¥")) {
+                // Replace if contains $ symbol
+                amount = amount.replace("$", "¥");
                 if (!amount.startsWith("¥")) {
-                    // Replace if contains $ symbol
-                    amount = amount.replace("$", "¥");
-                    if (!amount.startsWith("¥")) {
-                        amount = "¥ " + amount;
-                    }
+                    amount = "¥ " + amount;
                 }
-                tvBillAmount.setText(amount);
             }
-            if (tvPaymentStatus != null) {
-                // Display corresponding English text based on status
-                String status = currentBill.getStatus();
-                if ("Paid".equals(status)) {
-                    tvPaymentStatus.setText("Paid");
-                    tvPaymentStatus.setTextColor(getResources().getColor(android.R.color.holo_green_dark));
-                } else if ("Unpaid".equals(status)) {
-                    tvPaymentStatus.setText("Unpaid");
-                    tvPaymentStatus.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
-                } else {
-                    tvPaymentStatus.setText(status);
-                }
+            tvBillAmount.setText(amount);
+        }
+        if (tvPaymentStatus != null) {
+            // Display corresponding English text based on status
+            String status = currentBill.getStatus();
+            if ("Paid".equals(status)) {
+                tvPaymentStatus.setText("Paid");
+                tvPaymentStatus.setTextColor(getResources().getColor(android.R.color.holo_green_dark));
+            } else if ("Unpaid".equals(status)) {
+                tvPaymentStatus.setText("Unpaid");
+                tvPaymentStatus.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
+            } else {
+                tvPaymentStatus.setText(status);
             }
-            if (tvSplitMethod != null) {
-                // Display corresponding English text based on split method
-                String method = currentBill.getMethod();
-                if ("Equal".equals(method)) {
-                    tvSplitMethod.setText("Equal Split");
-                } else if ("Custom".equals(method)) {
-                    tvSplitMethod.setText("Custom");
-                } else if ("By quantity".equals(method)) {
-                    tvSplitMethod.setText("By Quantity");
-                } else if ("By item".equals(method)) {
-                    tvSplitMethod.setText("By Item");
-                } else {
-                    tvSplitMethod.setText(method);
-                }
+        }
+        if (tvSplitMethod != null) {
+            // Display corresponding English text based on split method
+            String method = currentBill.getMethod();
+            if ("Equal".equals(method)) {
+                tvSplitMethod.setText("Equal Split");
+            } else if ("Custom".equals(method)) {
+                tvSplitMethod.setText("Custom");
+            } else if ("By quantity".equals(method)) {
+                tvSplitMethod.setText("By Quantity");
+            } else if ("By item".equals(method)) {
+                tvSplitMethod.setText("By Item");
+            } else {
+                tvSplitMethod.setText(method);
             }
+        }
 
-            // Display creation date
-            TextView tvCreationDateValue = findViewById(R.id.tvCreationDateValue);
-            if (tvCreationDateValue != null && currentBill != null && currentBill.getCreationDate() != null) {
-                tvCreationDateValue.setText(currentBill.getCreationDate());
-            }
+        // Display creation date
+        TextView tvCreationDateValue = findViewById(R.id.tvCreationDateValue);
+        if (tvCreationDateValue != null && currentBill != null && currentBill.getCreationDate() != null) {
+            tvCreationDateValue.setText(currentBill.getCreationDate());
+        }
+
+        // Set back button
+        MaterialButton btnBack = findViewById(R.id.btnBack);
+        if (btnBack != null) {
+            btnBack.setOnClickListener(v -> finish());
+        }
 
-            // Set back button
-            MaterialButton btnBack = findViewById(R.id.btnBack);
-            if (btnBack != null) {
-                btnBack.setOnClickListener(v -> finish());
+        // Set payment button
+        MaterialButton btnPay = findViewById(R.id.btnPayBill);
+        if (btnPay != null) {
+            if (isPaid) {
+                btnPay.setVisibility(View.GONE);
             }
 
-            // Set payment button
-            MaterialButton btnPay = findViewById(R.id.btnPayBill);
-            if (btnPay != null) {
-                if (isPaid) {
-                    btnPay.setVisibility(View.GONE);
-                }
+            btnPay.setOnClickListener(v -> {
+                try {
+                    // Save custom amounts (if any)
+                    if (isCustomAmountMode) {
+                        saveCustomAmounts();
+                    }
 
-                btnPay.setOnClickListener(v -> {
-                    try {
-                        // Save custom amounts (if any)
-                        if (isCustomAmountMode) {
-                            saveCustomAmounts();
-                        }
+                    // Update bill status
+                    if (currentBill != null) {
+                        currentBill.setStatus("Paid");
+                        billStorage.updateBill(currentBill);
+                    }
 
-                        // Update bill status
-                        if (currentBill != null) {
-                            currentBill.setStatus("Paid");
-                            billStorage.updateBill(currentBill);
-                        }
+                    // Mark bill as paid
+                    isPaid = true;
+                    // Ensure current bill status is set to English Paid
+                    if (currentBill != null) {
+                        currentBill.setStatus("Paid");
+                    }
+                    if (tvPaymentStatus != null) {
+                        tvPaymentStatus.setText("Paid");
+                        tvPaymentStatus.setTextColor(getResources().getColor(android.R.color.holo_green_dark));
+                    }
+                    if (btnPay != null) {
+                        btnPay.setVisibility(View.GONE);
+                    }
 
-                        // Mark bill as paid
-                        isPaid = true;
-                        // Ensure current bill status is set to English Paid
-                        if (currentBill != null) {
-                            currentBill.setStatus("Paid");
-                        }
-                        if (tvPaymentStatus != null) {
-                            tvPaymentStatus.setText("Paid");
-                            tvPaymentStatus.setTextColor(getResources().getColor(android.R.color.holo_green_dark));
-                        }
-                        if (btnPay != null) {
-                            btnPay.setVisibility(View.GONE);
-                        }
+                    Toast.makeText(this, "Bill paid successfully", Toast.LENGTH_SHORT).show();
+
+                    // Set result and return
+                    Intent resultIntent = new Intent();
+                    resultIntent.putExtra(EXTRA_BILL_ID, billId);
+                    setResult(RESULT_BILL_PAID, resultIntent);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    Toast.makeText(this, "Payment failed", Toast.LENGTH_SHORT).show();
+                }
+            });
+        }
 
-                        Toast.makeText(this, "Bill paid successfully", Toast.LENGTH_SHORT).show();
+        // Set delete bill button
+        MaterialButton btnDelete = findViewById(R.id.btnDeleteBill);
+        if (btnDelete != null) {
+            btnDelete.setOnClickListener(v -> {
+                try {
+                    // Delete bill from database
+                    if (billStorage != null && billId != null) {
+                        billStorage.deleteBill(billId);
+                        Toast.makeText(this, "Bill deleted successfully", Toast.LENGTH_SHORT).show();
 
                         // Set result and return
                         Intent resultIntent = new Intent();
                         resultIntent.putExtra(EXTRA_BILL_ID, billId);
-                        setResult(RESULT_BILL_PAID, resultIntent);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                        Toast.makeText(this, "Payment failed", Toast.LENGTH_SHORT).show();
-                    }
-                });
-            }
+                        setResult(RESULT_OK, resultIntent);
 
-            // Set delete bill button
-            MaterialButton btnDelete = findViewById(R.id.btnDeleteBill);
-            if (btnDelete != null) {
-                btnDelete.setOnClickListener(v -> {
-                    try {
-                        // Delete bill from database
-                        if (billStorage != null && billId != null) {
-                            billStorage.deleteBill(billId);
-                            Toast.makeText(this, "Bill deleted successfully", Toast.LENGTH_SHORT).show();
-
-                            // Set result and return
-                            Intent resultIntent = new Intent();
-                            resultIntent.putExtra(EXTRA_BILL_ID, billId);
-                            setResult(RESULT_OK, resultIntent);
-
-                            // Close current activity
-                            finish();
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                        Toast.makeText(this, "Delete failed", Toast.LENGTH_SHORT).show();
+                        // Close current activity
+                        finish();
                     }
-                });
-            }
-
-            // Add participants information
-            addParticipants();
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error loading bill details", Toast.LENGTH_SHORT).show();
-            finish(); // Close page on error
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    Toast.makeText(this, "Delete failed", Toast.LENGTH_SHORT).show();
+                }
+            });
         }
+
+        // Add participants information
+        addParticipants();
     }
 
     private void addParticipants() {
@@ -239,7 +258,7 @@ public class BillDetailActivity extends AppCompatActivity {
 
             // Get the list of participants
             List<String> participants = currentBill.getParticipants();
-            List<Double> customAmounts = currentBill.getCustomAmounts();
+            List<Long> customAmounts = currentBill.getCustomAmounts();
 
             if (participants.isEmpty()) {
                 // If no participants, use default 4 participants
@@ -250,8 +269,9 @@ public class BillDetailActivity extends AppCompatActivity {
                 participants = currentBill.getParticipants();
             }
 
-            // Calculate the average amount
-            double averageAmount = currentBill.getAverageAmount();
+            // Equal split shares, exact to the cent
+            long[] equalShares = currentBill.getEqualShares();
+            String currency = currentBill.getCurrency();
 
             // Add participants
             for (int i = 0; i < participants.size(); i++) {
@@ -278,10 +298,10 @@ public class BillDetailActivity extends AppCompatActivity {
                             android.text.InputType.TYPE_CLASS_NUMBER | android.text.InputType.TYPE_NUMBER_FLAG_DECIMAL);
 
                     // Set default values
-                    if (i < customAmounts.size() && customAmounts.get(i) > 0) {
-                        amountEdit.setText(df.format(customAmounts.get(i)));
+                    if (hasFixedShares && i < customAmounts.size()) {
+                        amountEdit.setText(Money.of(customAmounts.get(i), currency).toDecimalString());
                     } else {
-                        amountEdit.setText(df.format(averageAmount));
+                        amountEdit.setText(Money.of(equalShares[i], currency).toDecimalString());
                     }
 
                     // Set hint text
@@ -300,10 +320,10 @@ public class BillDetailActivity extends AppCompatActivity {
                     amountTv.setLayoutParams(amountParams);
 
                     // Display amount
-                    if (i < customAmounts.size() && customAmounts.get(i) > 0) {
-                        amountTv.setText("¥ " + df.format(customAmounts.get(i)));
+                    if (hasFixedShares && i < customAmounts.size()) {
+                        amountTv.setText("¥ " + Money.of(customAmounts.get(i), currency).toDecimalString());
                     } else {
-                        amountTv.setText("¥ " + df.format(averageAmount));
+                        amountTv.setText("¥ " + Money.of(equalShares[i], currency).toDecimalString());
                     }
                     amountTv.setTextSize(14);
 
@@ -339,14 +359,13 @@ public class BillDetailActivity extends AppCompatActivity {
                     String text = editText.getText().toString();
                     if (!text.isEmpty()) {
                         try {
-                            double amount = Double.parseDouble(text);
-                            currentBill.addCustomAmount(amount);
+                            currentBill.addCustomAmount(Money.parse(text).getMinor());
                         } catch (NumberFormatException e) {
                             // Use 0 if format is wrong
-                            currentBill.addCustomAmount(0.0);
+                            currentBill.addCustomAmount(0);
                         }
                     } else {
-                        currentBill.addCustomAmount(0.0);
+                        currentBill.addCustomAmount(0);
                     }
                 }
             }
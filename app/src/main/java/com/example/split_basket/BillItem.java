@@ -5,16 +5,15 @@ import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
-import androidx.room.TypeConverter;
-import androidx.room.TypeConverters;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
-@Entity(tableName = "bills")
-@TypeConverters({BillItem.Converters.class})
+// Descending, so the unpaid-then-paid list order is the index order, see BillDao.observeBillsByStatus()
+@Entity(tableName = "bills", indices = {@Index(value = "status", orders = Index.Order.DESC)})
 public class BillItem implements Parcelable {
     public static final Creator<BillItem> CREATOR = new Creator<BillItem>() {
         @Override
@@ -31,17 +30,24 @@ public class BillItem implements Parcelable {
     @NonNull
     private String id;
     private String name;
-    private String amount;
+    private long amountMinor; // Total in minor units (cents)
+    private String currency; // ISO currency code
     private String status;
     private String method;
+    // Stored in bill_participants, filled in when a bill is loaded with its participants
+    @Ignore
     private List<String> participants;
-    private List<Double> customAmounts; // Used to store custom amounts
+    @Ignore
+    private List<Long> customAmounts; // Custom amounts in minor units
     private String creationDate; // Bill creation date
+    private String payer; // Who paid the bill; nullable, the first participant counts as payer then
 
-    public BillItem(String id, String name, String amount, String status, String method, String creationDate) {
+    public BillItem(String id, String name, long amountMinor, String currency, String status, String method,
+                    String creationDate) {
         this.id = id;
         this.name = name;
-        this.amount = amount;
+        this.amountMinor = amountMinor;
+        this.currency = currency;
         this.status = status;
         this.method = method;
         this.participants = new ArrayList<>();
@@ -49,10 +55,18 @@ public class BillItem implements Parcelable {
         this.creationDate = creationDate;
     }
 
+    // Amount given as display text in the default currency, e.g. "¥ 389.50"
+    @Ignore
+    public BillItem(String id, String name, String amount, String status, String method, String creationDate) {
+        this(id, name, 0, Money.DEFAULT_CURRENCY, status, method, creationDate);
+        setAmount(amount);
+    }
+
     protected BillItem(Parcel in) {
         id = in.readString();
         name = in.readString();
-        amount = in.readString();
+        amountMinor = in.readLong();
+        currency = in.readString();
         status = in.readString();
         method = in.readString();
         creationDate = in.readString();
@@ -61,8 +75,9 @@ public class BillItem implements Parcelable {
         int size = in.readInt();
         customAmounts = new ArrayList<>(size);
         for (int i = 0; i < size; i++) {
-            customAmounts.add(in.readDouble());
+            customAmounts.add(in.readLong());
         }
+        payer = in.readString();
     }
 
     // Getters and Setters
@@ -82,12 +97,43 @@ public class BillItem implements Parcelable {
         this.name = name;
     }
 
+    /**
+     * Amount for display, e.g. "$ 389.50"
+     */
     public String getAmount() {
-        return amount;
+        return getMoney().format();
     }
 
+    /**
+     * Set the amount from display or input text; unparsable text sets zero
+     */
     public void setAmount(String amount) {
-        this.amount = amount;
+        setMoney(Money.parseOrZero(amount));
+    }
+
+    public Money getMoney() {
+        return Money.of(amountMinor, currency);
+    }
+
+    public void setMoney(Money money) {
+        this.amountMinor = money.getMinor();
+        this.currency = money.getCurrency();
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public void setAmountMinor(long amountMinor) {
+        this.amountMinor = amountMinor;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
     }
 
     public String getStatus() {
@@ -118,37 +164,37 @@ public class BillItem implements Parcelable {
         this.participants.add(participant);
     }
 
-    public List<Double> getCustomAmounts() {
+    public List<Long> getCustomAmounts() {
         return customAmounts;
     }
 
-    public void setCustomAmounts(List<Double> customAmounts) {
+    public void setCustomAmounts(List<Long> customAmounts) {
         this.customAmounts = customAmounts;
     }
 
-    public void setCustomAmount(int index, double amount) {
+    public void setCustomAmount(int index, long amountMinor) {
         if (index >= 0 && index < customAmounts.size()) {
-            customAmounts.set(index, amount);
+            customAmounts.set(index, amountMinor);
         }
     }
 
-    public void addCustomAmount(double amount) {
-        this.customAmounts.add(amount);
+    public void addCustomAmount(long amountMinor) {
+        this.customAmounts.add(amountMinor);
     }
 
-    // Calculate average amount
-    public double getAverageAmount() {
+    // Equal split of the total in minor units; shares add up exactly to the total
+    public long[] getEqualShares() {
         if (participants.isEmpty())
-            return 0;
-
-        try {
-            // Remove currency symbols and spaces, convert to double
-            String cleanAmount = amount.replace("¥", "").replace("$", "").trim();
-            double total = Double.parseDouble(cleanAmount);
-            return total / participants.size();
-        } catch (NumberFormatException e) {
-            return 0;
-        }
+            return new long[0];
+        return getMoney().allocate(participants.size());
+    }
+
+    public String getPayer() {
+        return payer;
+    }
+
+    public void setPayer(String payer) {
+        this.payer = payer;
     }
 
     public String getCreationDate() {
@@ -168,56 +214,17 @@ public class BillItem implements Parcelable {
     public void writeToParcel(Parcel parcel, int i) {
         parcel.writeString(id);
         parcel.writeString(name);
-        parcel.writeString(amount);
+        parcel.writeLong(amountMinor);
+        parcel.writeString(currency);
         parcel.writeString(status);
         parcel.writeString(method);
         parcel.writeString(creationDate);
         parcel.writeStringList(participants);
         // Write custom amounts
         parcel.writeInt(customAmounts.size());
-        for (Double amount : customAmounts) {
-            parcel.writeDouble(amount);
-        }
-    }
-
-    // TypeConverters for Room Database
-    public static class Converters {
-        // Convert List<String> to String (comma-separated)
-        @TypeConverter
-        public static String fromStringList(List<String> value) {
-            if (value == null)
-                return null;
-            return String.join(",", value);
-        }
-
-        // Convert String to List<String>
-        @TypeConverter
-        public static List<String> toStringList(String value) {
-            if (value == null)
-                return new ArrayList<>();
-            return List.of(value.split(","));
-        }
-
-        // Convert List<Double> to String (comma-separated)
-        @TypeConverter
-        public static String fromDoubleList(List<Double> value) {
-            if (value == null)
-                return null;
-            return value.stream()
-                    .map(String::valueOf)
-                    .collect(Collectors.joining(","));
-        }
-
-        // Convert String to List<Double>
-        @TypeConverter
-        public static List<Double> toDoubleList(String value) {
-            if (value == null || value.isEmpty())
-                return new ArrayList<>();
-            return List.of(value.split(","))
-                    .stream()
-                    .filter(s -> !s.isEmpty()) // Skip empty strings
-                    .map(Double::parseDouble)
-                    .collect(Collectors.toList());
+        for (Long amount : customAmounts) {
+            parcel.writeLong(amount);
         }
+        parcel.writeString(payer);
     }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.split_basket;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+/**
+ * A participant sharing one bill line. Rows are deleted together with their line.
+ */
+@Entity(tableName = "bill_line_consumers",
+        primaryKeys = {"billId", "position", "participant"},
+        foreignKeys = @ForeignKey(entity = BillLineItem.class, parentColumns = {"billId", "position"},
+                childColumns = {"billId", "position"}, onDelete = ForeignKey.CASCADE),
+        indices = {@Index("participant")})
+public class BillLineConsumer {
+    @NonNull
+    public String billId;
+    public int position;
+    @NonNull
+    public String participant;
+
+    public BillLineConsumer(@NonNull String billId, int position, @NonNull String participant) {
+        this.billId = billId;
+        this.position = position;
+        this.participant = participant;
+    }
+}
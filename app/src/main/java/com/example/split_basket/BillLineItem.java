@@ -0,0 +1,49 @@
+package com.example.split_basket;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One line of an itemised bill: what was bought, for how much, and where it came from.
+ * Rows are deleted together with their bill.
+ */
+@Entity(tableName = "bill_line_items",
+        primaryKeys = {"billId", "position"},
+        foreignKeys = @ForeignKey(entity = BillItem.class, parentColumns = "id", childColumns = "billId",
+                onDelete = ForeignKey.CASCADE),
+        indices = {@Index("shoppingItemId"), @Index("inventoryItemId")})
+public class BillLineItem {
+    @NonNull
+    public String billId;
+    public int position; // Order of the line within the bill
+    @NonNull
+    public String name;
+    public int quantity;
+    public long priceMinor; // Price of the whole line in minor units (cents)
+    @Nullable
+    public Long shoppingItemId; // Shopping list item the line was bought for
+    @Nullable
+    public String inventoryItemId; // Inventory item the purchase went into
+
+    // Who shares this line; stored in bill_line_consumers
+    @Ignore
+    public List<String> consumers = new ArrayList<>();
+
+    public BillLineItem(@NonNull String billId, int position, @NonNull String name, int quantity, long priceMinor,
+                        @Nullable Long shoppingItemId, @Nullable String inventoryItemId) {
+        this.billId = billId;
+        this.position = position;
+        this.name = name;
+        this.quantity = quantity;
+        this.priceMinor = priceMinor;
+        this.shoppingItemId = shoppingItemId;
+        this.inventoryItemId = inventoryItemId;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.split_basket;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
+import java.util.Objects;
+
+public class BillListAdapter extends ListAdapter<BillItem, BillListAdapter.BillViewHolder> {
+
+    // Payload flags for partial rebinds
+    static final int PAYLOAD_STATUS = 1;
+    static final int PAYLOAD_AMOUNT = 1 << 1;
+
+    private static final DiffUtil.ItemCallback<BillItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<BillItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull BillItem oldItem, @NonNull BillItem newItem) {
+            return oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull BillItem oldItem, @NonNull BillItem newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && oldItem.getAmountMinor() == newItem.getAmountMinor()
+                    && Objects.equals(oldItem.getCurrency(), newItem.getCurrency())
+                    && Objects.equals(oldItem.getStatus(), newItem.getStatus())
+                    && Objects.equals(oldItem.getMethod(), newItem.getMethod());
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull BillItem oldItem, @NonNull BillItem newItem) {
+            // Name or method changes need a full rebind
+            if (!Objects.equals(oldItem.getName(), newItem.getName())
+                    || !Objects.equals(oldItem.getMethod(), newItem.getMethod())) {
+                return null;
+            }
+            int flags = 0;
+            if (!Objects.equals(oldItem.getStatus(), newItem.getStatus()))
+                flags |= PAYLOAD_STATUS;
+            if (oldItem.getAmountMinor() != newItem.getAmountMinor()
+                    || !Objects.equals(oldItem.getCurrency(), newItem.getCurrency()))
+                flags |= PAYLOAD_AMOUNT;
+            return flags == 0 ? null : flags;
+        }
+    };
+    private final OnBillClickListener listener;
+
+    public BillListAdapter(@NonNull OnBillClickListener listener) {
+        super(DIFF_CALLBACK);
+        this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    @NonNull
+    @Override
+    public BillViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_bill, parent, false);
+        return new BillViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull BillViewHolder holder, int position) {
+        holder.bind(getItem(position));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull BillViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        int flags = 0;
+        for (Object payload : payloads) {
+            if (payload instanceof Integer) {
+                flags |= (Integer) payload;
+            }
+        }
+        BillItem bill = getItem(position);
+        holder.current = bill;
+        if ((flags & PAYLOAD_STATUS) != 0)
+            holder.bindStatus(bill.getStatus());
+        if ((flags & PAYLOAD_AMOUNT) != 0)
+            holder.textAmount.setText(bill.getAmount());
+    }
+
+    @Override
+    public long getItemId(int position) {
+        BillItem bill = getItem(position);
+        if (bill == null)
+            return RecyclerView.NO_ID;
+        return stableIdOf(bill.getId());
+    }
+
+    // RecyclerView needs long ids and bill ids are strings: a 64-bit FNV-1a hash keeps the same id for the
+    // same bill without remembering every bill ever shown, and collisions are negligible at list sizes
+    static long stableIdOf(@NonNull String billId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < billId.length(); i++) {
+            hash ^= billId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == RecyclerView.NO_ID ? 0 : hash;
+    }
+
+    public interface OnBillClickListener {
+        void onBillClicked(@NonNull BillItem bill);
+    }
+
+    class BillViewHolder extends RecyclerView.ViewHolder {
+        private final TextView textName;
+        private final TextView textAmount;
+        private final TextView textStatus;
+        private BillItem current;
+
+        BillViewHolder(@NonNull View itemView) {
+            super(itemView);
+            textName = itemView.findViewById(R.id.textBillName);
+            textAmount = itemView.findViewById(R.id.textBillAmount);
+            textStatus = itemView.findViewById(R.id.textBillStatus);
+            // One listener per holder; it always reads the bill currently bound
+            itemView.setOnClickListener(v -> {
+                if (current != null && getBindingAdapterPosition() != RecyclerView.NO_POSITION) {
+                    listener.onBillClicked(current);
+                }
+            });
+        }
+
+        void bind(BillItem bill) {
+            current = bill;
+            textName.setText(bill.getName());
+            textAmount.setText(bill.getAmount());
+            bindStatus(bill.getStatus());
+        }
+
+        void bindStatus(String status) {
+            // Display corresponding English text based on status and set color
+            if ("Paid".equals(status)) {
+                textStatus.setText("Paid");
+                textStatus.setTextColor(ContextCompat.getColor(itemView.getContext(),
+                        android.R.color.holo_green_dark));
+            } else if ("Unpaid".equals(status)) {
+                textStatus.setText("Unpaid");
+                textStatus.setTextColor(ContextCompat.getColor(itemView.getContext(),
+                        android.R.color.holo_red_dark));
+            } else {
+                textStatus.setText(status);
+                textStatus.setTextColor(textName.getCurrentTextColor());
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.split_basket;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+/**
+ * One participant's share of a bill. Rows are deleted together with their bill.
+ */
+@Entity(tableName = "bill_participants",
+        primaryKeys = {"billId", "participant"},
+        foreignKeys = @ForeignKey(entity = BillItem.class, parentColumns = "id", childColumns = "billId",
+                onDelete = ForeignKey.CASCADE),
+        indices = {@Index("participant")})
+public class BillParticipant {
+    @NonNull
+    public String billId;
+    @NonNull
+    public String participant;
+    public int position; // Order of the participant within the bill
+    public long shareMinor; // Share in minor units (cents)
+    public boolean paid;
+
+    public BillParticipant(@NonNull String billId, @NonNull String participant, int position, long shareMinor,
+                           boolean paid) {
+        this.billId = billId;
+        this.participant = participant;
+        this.position = position;
+        this.shareMinor = shareMinor;
+        this.paid = paid;
+    }
+}
@@ -43,8 +43,8 @@ public class BillStorage {
         List<BillItem> defaultBills = new ArrayList<>();
 
         // Add default unpaid bill
-        BillItem unpaidBill = new BillItem("unpaid_bill_1", "Weekend Party", "$ 389.50", "Unpaid", "Equal Split",
-                "2024-01-01");
+        BillItem unpaidBill = new BillItem("unpaid_bill_1", "Weekend Party", 38950, Money.DEFAULT_CURRENCY,
+                "Unpaid", "Equal Split", "2024-01-01");
         unpaidBill.addParticipant("User1");
         unpaidBill.addParticipant("User2");
         unpaidBill.addParticipant("User3");
@@ -52,15 +52,16 @@ public class BillStorage {
         defaultBills.add(unpaidBill);
 
         // Add default paid bill
-        BillItem paidBill1 = new BillItem("paid_bill_1", "Daily Shopping", "$ 128.30", "Paid", "By Quantity",
-                "2024-01-02");
+        BillItem paidBill1 = new BillItem("paid_bill_1", "Daily Shopping", 12830, Money.DEFAULT_CURRENCY,
+                "Paid", "By Quantity", "2024-01-02");
         paidBill1.addParticipant("User1");
         paidBill1.addParticipant("User2");
         paidBill1.addParticipant("User3");
         paidBill1.addParticipant("User4");
         defaultBills.add(paidBill1);
 
-        BillItem paidBill2 = new BillItem("paid_bill_2", "Dinner", "$ 456.80", "Paid", "Custom", "2024-01-03");
+        BillItem paidBill2 = new BillItem("paid_bill_2", "Dinner", 45680, Money.DEFAULT_CURRENCY,
+                "Paid", "Custom", "2024-01-03");
         paidBill2.addParticipant("User1");
         paidBill2.addParticipant("User2");
         paidBill2.addParticipant("User3");
@@ -8,6 +8,7 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 
+import com.example.split_basket.callback.QueryCallback;
 import com.example.split_basket.data.BillRepository;
 
 import java.util.List;
@@ -31,24 +32,24 @@ public class BillViewModel extends AndroidViewModel {
     }
 
     /**
-     * Returns list of unpaid bills
+     * Loads unpaid bills asynchronously
      */
-    public List<BillItem> getUnpaidBills() {
-        return repository.getUnpaidBills();
+    public void getUnpaidBills(QueryCallback<List<BillItem>> callback) {
+        repository.getUnpaidBills(callback);
     }
 
     /**
-     * Returns list of paid bills
+     * Loads paid bills asynchronously
      */
-    public List<BillItem> getPaidBills() {
-        return repository.getPaidBills();
+    public void getPaidBills(QueryCallback<List<BillItem>> callback) {
+        repository.getPaidBills(callback);
     }
 
     /**
-     * Returns a bill by its ID
+     * Loads a bill by its ID asynchronously
      */
-    public BillItem getBillById(String billId) {
-        return repository.getBillById(billId);
+    public void getBillById(String billId, QueryCallback<BillItem> callback) {
+        repository.getBillById(billId, callback);
     }
 
     /**
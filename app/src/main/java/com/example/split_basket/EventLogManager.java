@@ -1,21 +1,29 @@
 package com.example.split_basket;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
-import android.util.Log;
+import android.content.res.Configuration;
 
+import androidx.annotation.NonNull;
+
+import com.example.split_basket.callback.QueryCallback;
+import com.example.split_basket.data.DatabaseScheduler;
 import com.example.split_basket.data.LogDao;
+import com.example.split_basket.data.LogRetentionManager;
 import com.example.split_basket.data.SplitBasketDatabase;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
 
 public class EventLogManager {
     // Event types
     public static final String EVENT_TYPE_INVENTORY_ADD = "INVENTORY_ADD";
     public static final String EVENT_TYPE_INVENTORY_REMOVE = "INVENTORY_REMOVE";
     public static final String EVENT_TYPE_INVENTORY_UPDATE = "INVENTORY_UPDATE";
+    public static final String EVENT_TYPE_INVENTORY_CONSUME = "INVENTORY_CONSUME";
     public static final String EVENT_TYPE_SHOPPING_LIST_ADD = "SHOPPING_LIST_ADD";
     public static final String EVENT_TYPE_SHOPPING_LIST_REMOVE = "SHOPPING_LIST_REMOVE";
     public static final String EVENT_TYPE_SHOPPING_LIST_CHECK = "SHOPPING_LIST_CHECK";
@@ -25,24 +33,87 @@ public class EventLogManager {
     public static final String EVENT_TYPE_BILL_UPDATE = "BILL_UPDATE";
     public static final String EVENT_TYPE_BILL_ADD = "BILL_ADD";
     public static final String EVENT_TYPE_BILL_REMOVE = "BILL_REMOVE";
-    private static final String TAG = "EventLogManager";
+    // Entity types, stored with each log entry
+    public static final String ENTITY_TYPE_INVENTORY = "INVENTORY";
+    public static final String ENTITY_TYPE_SHOPPING_LIST = "SHOPPING_LIST";
+    public static final String ENTITY_TYPE_BILL = "BILL";
+    // Description templates: "<user><phrase><content>"
+    private static final Map<String, String> ACTION_PHRASES = new HashMap<>();
+    // Relative time strings, filled lazily (benign races only ever store equal strings)
+    private static final String[] MINUTES_AGO = new String[60];
+    private static final String[] HOURS_AGO = new String[24];
+
+    static {
+        ACTION_PHRASES.put(EVENT_TYPE_INVENTORY_ADD, " added inventory: ");
+        ACTION_PHRASES.put(EVENT_TYPE_INVENTORY_REMOVE, " removed inventory: ");
+        ACTION_PHRASES.put(EVENT_TYPE_INVENTORY_UPDATE, " updated inventory: ");
+        ACTION_PHRASES.put(EVENT_TYPE_INVENTORY_CONSUME, " used: ");
+        ACTION_PHRASES.put(EVENT_TYPE_SHOPPING_LIST_ADD, " added to shopping list: ");
+        ACTION_PHRASES.put(EVENT_TYPE_SHOPPING_LIST_REMOVE, " removed from shopping list: ");
+        ACTION_PHRASES.put(EVENT_TYPE_SHOPPING_LIST_CHECK, " checked item: ");
+        ACTION_PHRASES.put(EVENT_TYPE_SHOPPING_LIST_PURCHASE, " purchased item: ");
+        ACTION_PHRASES.put(EVENT_TYPE_SHOPPING_LIST_UPDATE, " updated item: ");
+        ACTION_PHRASES.put(EVENT_TYPE_BILL_PAY, " paid bill: ");
+        ACTION_PHRASES.put(EVENT_TYPE_BILL_UPDATE, " updated bill: ");
+        ACTION_PHRASES.put(EVENT_TYPE_BILL_ADD, " added bill: ");
+        ACTION_PHRASES.put(EVENT_TYPE_BILL_REMOVE, " removed bill: ");
+    }
+    // Number of newest entries kept in memory; older entries are paged in from the database
+    private static final int DEFAULT_WINDOW_SIZE = 50;
+    // Write-behind batching: pending entries are flushed in one transaction when the batch
+    // is full, shortly after the first pending entry, or when the app goes to the background
+    private static final int FLUSH_BATCH_SIZE = 64;
+    private static final long FLUSH_DELAY_MILLIS = 250;
+    // A failed batch is retried later; past this many pending entries the oldest are dropped instead
+    private static final int MAX_PENDING_LOGS = 1000;
+    private static final long RETRY_DELAY_MILLIS = 5000;
     private static EventLogManager instance;
     private final LogDao logDao;
-    private final List<LogEntry> logsCache;
-    private final ExecutorService executorService;
+    // Newest entries; written only on the writer lane, read lock-free from any thread
+    private final LogWindow logsCache = new LogWindow(DEFAULT_WINDOW_SIZE);
+    private final DatabaseScheduler scheduler;
+    private final LogRetentionManager retentionManager;
+    // Guards pendingLogs and flushScheduled only, never the cache
+    private final Object pendingLock = new Object();
+    private final List<com.example.split_basket.data.LogEntry> pendingLogs = new ArrayList<>();
+    private boolean flushScheduled = false;
 
-    private EventLogManager(Context context) {
+    private EventLogManager(Context context, DatabaseScheduler scheduler) {
         SplitBasketDatabase db = SplitBasketDatabase.getInstance(context);
         logDao = db.logDao();
-        logsCache = new ArrayList<>();
-        executorService = Executors.newSingleThreadExecutor();
+        this.scheduler = scheduler;
+        retentionManager = new LogRetentionManager(context);
         // Load logs in background
         loadLogsInBackground();
+        // Trim old logs after the first load, reloading the cache if anything was removed
+        scheduler.write(() -> {
+            if (retentionManager.runIfDue() > 0) {
+                reloadCache();
+            }
+        });
+        // Flush pending logs when the UI is hidden, the process may be killed after that
+        context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                if (level >= TRIM_MEMORY_UI_HIDDEN) {
+                    flush();
+                }
+            }
+
+            @Override
+            public void onConfigurationChanged(@NonNull Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                flush();
+            }
+        });
     }
 
     public static synchronized EventLogManager getInstance(Context context) {
         if (instance == null) {
-            instance = new EventLogManager(context);
+            instance = new EventLogManager(context, DatabaseScheduler.getInstance());
         }
         return instance;
     }
@@ -51,22 +122,38 @@ public class EventLogManager {
      * Format time as "x minutes/hours ago" format
      */
     public static String formatTimeAgo(long timestamp) {
-        long currentTime = System.currentTimeMillis();
-        long diff = currentTime - timestamp;
+        return formatTimeAgo(timestamp, System.currentTimeMillis());
+    }
+
+    /**
+     * Format time as "x minutes/hours ago" format relative to the given time.
+     * Minute and hour strings are cached, so repeated formatting does not allocate.
+     */
+    public static String formatTimeAgo(long timestamp, long currentTime) {
+        long diff = Math.max(0, currentTime - timestamp);
 
         long minutes = diff / (60 * 1000);
         long hours = diff / (60 * 60 * 1000);
         long days = diff / (24 * 60 * 60 * 1000);
 
         if (minutes < 60) {
-            return minutes + (minutes == 1 ? " minute" : " minutes") + " ago";
+            return cachedTimeAgo(MINUTES_AGO, (int) minutes, " minute", " minutes");
         } else if (hours < 24) {
-            return hours + (hours == 1 ? " hour" : " hours") + " ago";
+            return cachedTimeAgo(HOURS_AGO, (int) hours, " hour", " hours");
         } else {
             return days + (days == 1 ? " day" : " days") + " ago";
         }
     }
 
+    private static String cachedTimeAgo(String[] cache, int value, String singular, String plural) {
+        String text = cache[value];
+        if (text == null) {
+            text = value + (value == 1 ? singular : plural) + " ago";
+            cache[value] = text;
+        }
+        return text;
+    }
+
     /**
      * Add a log entry
      *
@@ -88,44 +175,125 @@ public class EventLogManager {
      * @param user    User (optional)
      */
     public void addLog(String type, String content, String user) {
-        long timestamp = System.currentTimeMillis();
-
-        // Create log entry string for formatting
-        String userPart = user != null ? " | " + user : "";
-        String logEntryString = timestamp + " | " + type + " | " + content + userPart;
+        addLog(type, content, user, null, null, 0);
+    }
 
-        // Format log entry to user-friendly description
-        String formattedDescription = formatLogEntry(logEntryString);
+    /**
+     * Add a log entry with structured details for statistics
+     *
+     * @param type          Event type
+     * @param content       Event content
+     * @param user          User (optional)
+     * @param itemId        Id of the affected item (optional)
+     * @param category      Category of the affected item (optional)
+     * @param quantityDelta Change in quantity, negative when stock goes out
+     */
+    public void addLog(String type, String content, String user, String itemId, String category,
+                       int quantityDelta) {
+        long timestamp = System.currentTimeMillis();
+        String userName = user != null ? user : "";
 
-        // Create database LogEntry
+        // Create database LogEntry; relative time is rendered when the entry is shown
         com.example.split_basket.data.LogEntry logEntry = new com.example.split_basket.data.LogEntry(timestamp, type,
-                formattedDescription, user != null ? user : "");
-
-        // Insert into database in background
-        executorService.execute(() -> {
-            logDao.insert(logEntry);
-            // Update cache
-            synchronized (this) {
-                logsCache.add(0, new LogEntry(timestamp, type, formattedDescription, user != null ? user : ""));
+                describe(type, content, userName), userName, entityTypeOf(type), itemId, category, quantityDelta);
+
+        // Queue for the next batched insert
+        boolean flushNow;
+        boolean scheduleFlush;
+        synchronized (pendingLock) {
+            pendingLogs.add(logEntry);
+            flushNow = pendingLogs.size() >= FLUSH_BATCH_SIZE;
+            scheduleFlush = !flushNow && !flushScheduled;
+            if (scheduleFlush) {
+                flushScheduled = true;
             }
+        }
+        if (flushNow) {
+            flush();
+        } else if (scheduleFlush) {
+            scheduler.writeDelayed(this::writePendingLogs, FLUSH_DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * Write all pending log entries now
+     */
+    public void flush() {
+        scheduler.write(this::writePendingLogs);
+    }
+
+    /**
+     * Write all pending log entries now, then run onFlushed on the main thread, when
+     * {@link #getLogs()} includes every entry added before this call
+     */
+    public void flush(@NonNull Runnable onFlushed) {
+        scheduler.write(() -> {
+            writePendingLogs();
+            scheduler.postToMain(onFlushed);
         });
     }
 
+    // Runs on the writer lane: one insert transaction for the whole batch
+    private void writePendingLogs() {
+        List<com.example.split_basket.data.LogEntry> batch;
+        synchronized (pendingLock) {
+            flushScheduled = false;
+            if (pendingLogs.isEmpty())
+                return;
+            batch = new ArrayList<>(pendingLogs);
+            pendingLogs.clear();
+        }
+        long[] ids;
+        try {
+            ids = logDao.insertAll(batch);
+        } catch (Exception e) {
+            e.printStackTrace();
+            requeue(batch);
+            return;
+        }
+        // Update cache newest first, dropping the oldest entries once the window is full
+        for (int i = 0; i < batch.size(); i++) {
+            com.example.split_basket.data.LogEntry entry = batch.get(i);
+            logsCache.prepend(new LogEntry(ids[i], entry.getTimestamp(), entry.getActionType(),
+                    entry.getDescription(), entry.getUser()));
+        }
+    }
+
+    // Put a batch that failed to insert back in front of newer entries and retry it later
+    private void requeue(List<com.example.split_basket.data.LogEntry> batch) {
+        boolean scheduleRetry;
+        synchronized (pendingLock) {
+            pendingLogs.addAll(0, batch);
+            int excess = pendingLogs.size() - MAX_PENDING_LOGS;
+            if (excess > 0) {
+                pendingLogs.subList(0, excess).clear();
+            }
+            scheduleRetry = !flushScheduled;
+            flushScheduled = true;
+        }
+        if (scheduleRetry) {
+            scheduler.writeDelayed(this::writePendingLogs, RETRY_DELAY_MILLIS);
+        }
+    }
+
+    // Event types are prefixed with their entity type
+    private static String entityTypeOf(String type) {
+        if (type.startsWith(ENTITY_TYPE_INVENTORY))
+            return ENTITY_TYPE_INVENTORY;
+        if (type.startsWith(ENTITY_TYPE_SHOPPING_LIST))
+            return ENTITY_TYPE_SHOPPING_LIST;
+        if (type.startsWith(ENTITY_TYPE_BILL))
+            return ENTITY_TYPE_BILL;
+        return null;
+    }
+
     /**
-     * Load log entries from database in background
+     * Load log entries from database in background.
+     * Runs on the writer lane so it stays ordered with inserts and clears, as the cache relies on that.
      */
     private void loadLogsInBackground() {
-        executorService.execute(() -> {
-            List<com.example.split_basket.data.LogEntry> dbLogs = logDao.getAllLogs();
-            List<LogEntry> loadedLogs = new ArrayList<>();
-            for (com.example.split_basket.data.LogEntry dbLog : dbLogs) {
-                loadedLogs.add(new LogEntry(dbLog.getTimestamp(), dbLog.getActionType(), dbLog.getDescription(),
-                        dbLog.getUser()));
-            }
-            synchronized (this) {
-                logsCache.clear();
-                logsCache.addAll(loadedLogs);
-            }
+        scheduler.write(() -> {
+            reloadCache();
             // Add default logs if cache is empty
             if (logsCache.isEmpty()) {
                 addDefaultLogs();
@@ -133,20 +301,54 @@ public class EventLogManager {
         });
     }
 
+    // Must run on the writer lane
+    private void reloadCache() {
+        logsCache.replace(toCacheEntries(logDao.getLatestLogs(logsCache.capacity())));
+    }
+
     /**
-     * Get all log entries (sorted by time descending)
+     * Get the newest log entries held in memory (sorted by time descending) as an unmodifiable snapshot.
+     * Use {@link #loadLogsBefore} to page further back.
      */
-    public synchronized List<LogEntry> getAllLogs() {
-        return new ArrayList<>(logsCache);
+    public List<LogEntry> getAllLogs() {
+        return logsCache.snapshot();
     }
 
     /**
-     * Get all log entries (sorted by time descending) - for external calls
+     * Get the newest log entries held in memory (sorted by time descending) - for external calls
      */
-    public synchronized List<LogEntry> getLogs() {
+    public List<LogEntry> getLogs() {
         return getAllLogs();
     }
 
+    /**
+     * Load the page of entries older than the given one, delivered on the main thread
+     *
+     * @param last     Oldest entry loaded so far
+     * @param limit    Page size
+     * @param callback Receives the page, empty when there are no older entries
+     */
+    public void loadLogsBefore(LogEntry last, int limit, QueryCallback<List<LogEntry>> callback) {
+        scheduler.query(() -> toCacheEntries(logDao.getLogsBefore(last.timestamp(), last.id(), limit)),
+                Collections.emptyList(), callback);
+    }
+
+    /**
+     * Set how many of the newest entries are kept in memory
+     */
+    public void setWindowSize(int windowSize) {
+        logsCache.setCapacity(windowSize);
+    }
+
+    private static List<LogEntry> toCacheEntries(List<com.example.split_basket.data.LogEntry> dbLogs) {
+        List<LogEntry> entries = new ArrayList<>(dbLogs.size());
+        for (com.example.split_basket.data.LogEntry dbLog : dbLogs) {
+            entries.add(new LogEntry(dbLog.getId(), dbLog.getTimestamp(), dbLog.getActionType(),
+                    dbLog.getDescription(), dbLog.getUser()));
+        }
+        return entries;
+    }
+
     /**
      * Add default log entries when app is first started
      */
@@ -165,91 +367,27 @@ public class EventLogManager {
      * Clear all log entries
      */
     public void clearLogs() {
-        executorService.execute(() -> {
+        // Entries added before the clear are cleared too
+        synchronized (pendingLock) {
+            pendingLogs.clear();
+        }
+        scheduler.write(() -> {
             logDao.clearAllLogs();
             // Clear cache
-            synchronized (this) {
-                logsCache.clear();
-            }
+            logsCache.clear();
         });
     }
 
     /**
-     * Parse log entry into a more user-friendly display format
+     * Build the user-friendly description of an event, e.g. "Alice added inventory: Milk (2)"
      */
-    public String formatLogEntry(String logEntry) {
-        try {
-            String[] parts = logEntry.split(" \\| ", 3);
-            if (parts.length < 3)
-                return logEntry;
-
-            long timestamp = Long.parseLong(parts[0]);
-            String type = parts[1];
-            String content = parts[2];
-
-            // Parse user part
-            String user = "";
-            if (content.contains(" | ")) {
-                int userIndex = content.lastIndexOf(" | ");
-                user = content.substring(userIndex + 3);
-                content = content.substring(0, userIndex);
-            }
-
-            // Format content by type
-            String formattedContent = content;
-            switch (type) {
-                case EVENT_TYPE_INVENTORY_ADD:
-                    formattedContent = user + " added inventory: " + content;
-                    break;
-                case EVENT_TYPE_INVENTORY_REMOVE:
-                    formattedContent = user + " removed inventory: " + content;
-                    break;
-                case EVENT_TYPE_INVENTORY_UPDATE:
-                    formattedContent = user + " updated inventory: " + content;
-                    break;
-                case EVENT_TYPE_SHOPPING_LIST_ADD:
-                    formattedContent = user + " added to shopping list: " + content;
-                    break;
-                case EVENT_TYPE_SHOPPING_LIST_REMOVE:
-                    formattedContent = user + " removed from shopping list: " + content;
-                    break;
-                case EVENT_TYPE_SHOPPING_LIST_CHECK:
-                    formattedContent = user + " checked item: " + content;
-                    break;
-                case EVENT_TYPE_SHOPPING_LIST_PURCHASE:
-                    formattedContent = user + " purchased item: " + content;
-                    break;
-                case EVENT_TYPE_SHOPPING_LIST_UPDATE:
-                    formattedContent = user + " updated item: " + content;
-                    break;
-
-                case EVENT_TYPE_BILL_PAY:
-                    formattedContent = user + " paid bill: " + content;
-                    break;
-                case EVENT_TYPE_BILL_UPDATE:
-                    formattedContent = user + " updated bill: " + content;
-                    break;
-                case EVENT_TYPE_BILL_ADD:
-                    formattedContent = user + " added bill: " + content;
-                    break;
-                case EVENT_TYPE_BILL_REMOVE:
-                    formattedContent = user + " removed bill: " + content;
-                    break;
-            }
-
-            // Format time
-            String timeAgo = EventLogManager.formatTimeAgo(timestamp);
-
-            return formattedContent + " | " + timeAgo;
-
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to format log entry", e);
-            return logEntry;
-        }
+    public static String describe(String type, String content, String user) {
+        String phrase = ACTION_PHRASES.get(type);
+        return phrase != null ? user + phrase + content : content;
     }
 
     // Log entry class for UI
-    public record LogEntry(long timestamp, String actionType, String description, String user) {
+    public record LogEntry(long id, long timestamp, String actionType, String description, String user) {
 
         public String getItemName() {
             // Extract item name from description (simple implementation)
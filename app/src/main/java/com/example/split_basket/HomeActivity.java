@@ -7,11 +7,13 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.split_basket.data.CategoryCount;
 import com.example.split_basket.data.InventoryRepository;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.checkbox.MaterialCheckBox;
@@ -22,11 +24,7 @@ import com.google.android.material.textfield.TextInputEditText;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.concurrent.Future;
 
 public class HomeActivity extends AppCompatActivity {
 
@@ -53,6 +51,7 @@ public class HomeActivity extends AppCompatActivity {
     // Variables related to the log feature
     private RecyclerView recyclerViewStatus;
     private StatusLogAdapter statusLogAdapter;
+    private long latestLogId = -1;
 
     private HomeViewModel homeViewModel;
 
@@ -128,8 +127,9 @@ public class HomeActivity extends AppCompatActivity {
         // Observe logs LiveData (handle both list update and scrolling)
         homeViewModel.logs.observe(this, logs -> {
             statusLogAdapter.submitList(logs);
-            // Scroll to latest log entry if list is not empty
-            if (logs != null && !logs.isEmpty()) {
+            // Scroll to latest log entry when a newer one arrives (not when older pages are appended)
+            if (logs != null && !logs.isEmpty() && logs.get(0).id() != latestLogId) {
+                latestLogId = logs.get(0).id();
                 recyclerViewStatus.post(() -> recyclerViewStatus.scrollToPosition(0));
             }
         });
@@ -194,24 +194,21 @@ public class HomeActivity extends AppCompatActivity {
                     System.currentTimeMillis() + (30L * 24 * 60 * 60 * 1000), // Default 30 days
                     System.currentTimeMillis(), null); // null for photoUri
 
-            // Add to inventory using ViewModel
-            Future<Void> addItemFuture = homeViewModel.addInventoryItem(item);
-
-            try {
-                // Wait for the item to be added and log to be written
-                addItemFuture.get();
-                // Show success message
-                Toast.makeText(this, "Item added to inventory", Toast.LENGTH_SHORT).show();
-
-                // Update reminders
-                homeViewModel.updateReminders();
-                // Update logs immediately after adding item
-                homeViewModel.loadLogs();
-            } catch (Exception e) {
-                // Show error message if something goes wrong
-                Toast.makeText(this, "Failed to add item", Toast.LENGTH_SHORT).show();
-                e.printStackTrace();
-            }
+            // Add to inventory using ViewModel; the callback runs on the main thread once written
+            homeViewModel.addInventoryItem(item, (success, message) -> {
+                if (success) {
+                    // Show success message
+                    Toast.makeText(this, "Item added to inventory", Toast.LENGTH_SHORT).show();
+
+                    // Update reminders
+                    homeViewModel.updateReminders();
+                    // Update logs once the buffered entry for this item is written
+                    homeViewModel.loadLogsWhenFlushed();
+                } else {
+                    // Show error message if something goes wrong
+                    Toast.makeText(this, "Failed to add item", Toast.LENGTH_SHORT).show();
+                }
+            });
 
             dialog.dismiss();
         });
@@ -227,45 +224,34 @@ public class HomeActivity extends AppCompatActivity {
         TextView tvOverviewContent = dialogView.findViewById(R.id.tvOverviewContent);
         MaterialButton btnClose = dialogView.findViewById(R.id.btnCloseOverview);
 
-        // Get inventory data
+        // Aggregates are computed by SQLite off the main thread; fill in the text when they arrive
         InventoryRepository inventoryRepo = InventoryRepository.getInstance(this);
-        List<InventoryItem> items = inventoryRepo.getItems();
-
-        // Calculate summary statistics
-        int totalItems = items.size();
         long currentTime = System.currentTimeMillis();
         long sevenDays = 7 * 24 * 60 * 60 * 1000;
-        int expiringSoon = 0;
-        Map<String, Integer> itemsByCategory = new HashMap<>();
-
-        for (InventoryItem item : items) {
-            // Count expiring items (within 7 days)
-            if (item.expireDateMillis != null && item.expireDateMillis <= currentTime + sevenDays
-                    && item.expireDateMillis > currentTime) {
-                expiringSoon++;
+        inventoryRepo.getCategoryCounts(categoryCounts -> inventoryRepo.countExpiring(currentTime + 1,
+                currentTime + sevenDays, expiringSoon -> {
+            int totalItems = 0;
+            for (CategoryCount count : categoryCounts) {
+                totalItems += count.itemCount;
             }
 
-            // Count items by category
-            String category = item.category;
-            itemsByCategory.put(category, itemsByCategory.getOrDefault(category, 0) + 1);
-        }
-
-        // Build overview text
-        StringBuilder overviewText = new StringBuilder();
-        overviewText.append("Total items in inventory: " + totalItems + "\n\n");
-
-        if (itemsByCategory.isEmpty()) {
-            overviewText.append("No items yet.");
-        } else {
-            overviewText.append("Items by category:\n");
-            for (Map.Entry<String, Integer> entry : itemsByCategory.entrySet()) {
-                overviewText.append("- " + entry.getKey() + ": " + entry.getValue() + "\n");
-            }
+            // Build overview text
+            StringBuilder overviewText = new StringBuilder();
+            overviewText.append("Total items in inventory: " + totalItems + "\n\n");
+
+            if (categoryCounts.isEmpty()) {
+                overviewText.append("No items yet.");
+            } else {
+                overviewText.append("Items by category:\n");
+                for (CategoryCount count : categoryCounts) {
+                    overviewText.append("- " + count.category + ": " + count.itemCount + "\n");
+                }
 
-            overviewText.append("\nItems expiring soon (within 7 days): " + expiringSoon);
-        }
+                overviewText.append("\nItems expiring soon (within 7 days): " + expiringSoon);
+            }
 
-        tvOverviewContent.setText(overviewText.toString());
+            tvOverviewContent.setText(overviewText.toString());
+        }));
 
         final androidx.appcompat.app.AlertDialog dialog = new MaterialAlertDialogBuilder(this)
                 .setView(dialogView)
@@ -431,11 +417,21 @@ public class HomeActivity extends AppCompatActivity {
         statusLogAdapter = new StatusLogAdapter(this);
         recyclerViewStatus.setAdapter(statusLogAdapter);
         // Use the default LinearLayoutManager (already set in XML)
+        // Page in older logs when scrolled to the bottom
+        recyclerViewStatus.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0 && !recyclerView.canScrollVertically(1)) {
+                    homeViewModel.loadMoreLogs();
+                }
+            }
+        });
     }
 
-    // Load log data - now handled by ViewModel
+    // Load log data - now handled by ViewModel; entries other screens left in the log buffer are
+    // written first
     private void loadLogs() {
-        homeViewModel.loadLogs();
+        homeViewModel.loadLogsWhenFlushed();
     }
 
     // Date formatting utility method
@@ -6,10 +6,10 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.Transformations;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 
+import com.example.split_basket.callback.OperationCallback;
 import com.example.split_basket.data.BillRepository;
 import com.example.split_basket.data.InventoryRepository;
 
@@ -18,10 +18,11 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.Future;
 
 public class HomeViewModel extends AndroidViewModel {
     private static final String TAG = "HomeViewModel";
+    private static final long SEVEN_DAYS_MILLIS = 7L * 24 * 60 * 60 * 1000;
+    private static final int LOG_PAGE_SIZE = 20;
     public final LiveData<Integer> totalItems;
     private final InventoryRepository inventoryRepository;
     private final BillRepository billRepository;
@@ -30,10 +31,11 @@ public class HomeViewModel extends AndroidViewModel {
     private final MutableLiveData<List<String>> _reminders = new MutableLiveData<>(new ArrayList<>());
     // LiveData for logs
     private final MutableLiveData<List<EventLogManager.LogEntry>> _logs = new MutableLiveData<>(new ArrayList<>());
-    // LiveData for inventory overview
-    private final LiveData<List<InventoryItem>> inventoryItems;
     public LiveData<List<String>> reminders = _reminders;
     public LiveData<List<EventLogManager.LogEntry>> logs = _logs;
+    // Log paging state, only touched on the main thread
+    private boolean loadingMoreLogs = false;
+    private boolean allLogsLoaded = false;
 
     public HomeViewModel(Application application) {
         super(application);
@@ -44,38 +46,32 @@ public class HomeViewModel extends AndroidViewModel {
         // Ensure seed data for inventory
         inventoryRepository.ensureSeedData();
 
-        inventoryItems = inventoryRepository.observeItems();
-        totalItems = Transformations.map(inventoryItems, List::size);
+        totalItems = inventoryRepository.observeItemCount();
     }
 
     /**
      * Updates the reminders for expiring inventory items and unpaid bills
      */
     public void updateReminders() {
-        // Get inventory items expiring soon (within 7 days)
-        List<InventoryItem> items = inventoryRepository.getItems();
-        List<BillItem> unpaidBills = billRepository.getUnpaidBills();
-
         long currentTime = System.currentTimeMillis();
-        long sevenDays = 7 * 24 * 60 * 60 * 1000;
-
-        List<String> allReminders = new ArrayList<>();
+        // Both reads run off the main thread; reminders are published once both have arrived
+        inventoryRepository.getExpiringItems(currentTime + 1, currentTime + SEVEN_DAYS_MILLIS,
+                expiringItems -> billRepository.getUnpaidBills(unpaidBills -> {
+            List<String> allReminders = new ArrayList<>();
 
-        // Check for expiring items
-        for (InventoryItem item : items) {
-            if (item.expireDateMillis != null && item.expireDateMillis <= currentTime + sevenDays
-                    && item.expireDateMillis > currentTime) {
+            // Expiring items (within 7 days), already filtered and ordered by the query
+            for (InventoryItem item : expiringItems) {
                 String dateStr = formatDate(item.expireDateMillis);
                 allReminders.add(item.name + " will expire on " + dateStr + ".");
             }
-        }
 
-        // Check for unpaid bills
-        for (BillItem bill : unpaidBills) {
-            allReminders.add("Unpaid bill: " + bill.getName() + " (" + bill.getAmount() + ")");
-        }
+            // Check for unpaid bills
+            for (BillItem bill : unpaidBills) {
+                allReminders.add("Unpaid bill: " + bill.getName() + " (" + bill.getAmount() + ")");
+            }
 
-        _reminders.setValue(allReminders);
+            _reminders.setValue(allReminders);
+        }));
     }
 
     /**
@@ -83,16 +79,49 @@ public class HomeViewModel extends AndroidViewModel {
      */
     public void loadLogs() {
         List<EventLogManager.LogEntry> logs = eventLogManager.getLogs();
+        allLogsLoaded = false;
         _logs.setValue(logs);
     }
 
+    /**
+     * Loads the latest status logs once entries still waiting in the log buffer are written
+     */
+    public void loadLogsWhenFlushed() {
+        eventLogManager.flush(this::loadLogs);
+    }
+
+    /**
+     * Appends the next page of older logs, if any
+     */
+    public void loadMoreLogs() {
+        List<EventLogManager.LogEntry> current = _logs.getValue();
+        if (loadingMoreLogs || allLogsLoaded || current == null || current.isEmpty())
+            return;
+        loadingMoreLogs = true;
+        eventLogManager.loadLogsBefore(current.get(current.size() - 1), LOG_PAGE_SIZE, page -> {
+            loadingMoreLogs = false;
+            // Drop the page if the feed was reloaded meanwhile
+            if (_logs.getValue() != current)
+                return;
+            if (page.size() < LOG_PAGE_SIZE)
+                allLogsLoaded = true;
+            if (page.isEmpty())
+                return;
+            List<EventLogManager.LogEntry> merged = new ArrayList<>(current.size() + page.size());
+            merged.addAll(current);
+            merged.addAll(page);
+            _logs.setValue(merged);
+        });
+    }
+
     /**
      * Adds a new inventory item to the repository
      *
-     * @param item The inventory item to add
+     * @param item     The inventory item to add
+     * @param callback Invoked on the main thread once the item and its log are written
      */
-    public Future<Void> addInventoryItem(InventoryItem item) {
-        return inventoryRepository.addItem(item);
+    public void addInventoryItem(InventoryItem item, OperationCallback callback) {
+        inventoryRepository.addItem(item, callback);
     }
 
     /**
@@ -106,26 +135,6 @@ public class HomeViewModel extends AndroidViewModel {
         return sdf.format(new Date(millis));
     }
 
-    /**
-     * Calculates expiring items count (within 7 days)
-     *
-     * @return Count of expiring items
-     */
-    public LiveData<Integer> getExpiringItemsCount() {
-        return Transformations.map(inventoryItems, items -> {
-            long currentTime = System.currentTimeMillis();
-            long sevenDays = 7 * 24 * 60 * 60 * 1000;
-            int count = 0;
-            for (InventoryItem item : items) {
-                if (item.expireDateMillis != null && item.expireDateMillis <= currentTime + sevenDays
-                        && item.expireDateMillis > currentTime) {
-                    count++;
-                }
-            }
-            return count;
-        });
-    }
-
     /**
      * Factory for creating HomeViewModel
      */
@@ -2,28 +2,29 @@ package com.example.split_basket;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
+import android.widget.EditText;
 import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.RecyclerView;
 
-import com.example.split_basket.data.ShoppingListRepository;
+import com.example.split_basket.callback.ImportCallback;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.Future;
-
 public class InventoryActivity extends AppCompatActivity {
 
     private static final int SOON_DAYS = 3;
     private MaterialButton btnHome, btnInventory, btnList, btnBill;
-    private android.widget.LinearLayout itemsContainer;
+    private RecyclerView recyclerInventory;
+    private android.widget.TextView textInventoryEmpty;
+    private InventoryListAdapter inventoryListAdapter;
     private String selectedCategory = "All";
     private android.widget.TextView tvRemain, tvSoon, tvConsumed;
     private InventoryViewModel inventoryViewModel;
@@ -41,7 +42,10 @@ public class InventoryActivity extends AppCompatActivity {
         scroll.setAlpha(0f);
         scroll.animate().alpha(1f).setDuration(300).start();
 
-        itemsContainer = findViewById(R.id.itemsContainer);
+        recyclerInventory = findViewById(R.id.recyclerInventory);
+        textInventoryEmpty = findViewById(R.id.textInventoryEmpty);
+        inventoryListAdapter = new InventoryListAdapter(this::showItemActions);
+        recyclerInventory.setAdapter(inventoryListAdapter);
         tvRemain = findViewById(R.id.tvRemain);
         tvSoon = findViewById(R.id.tvSoon);
         tvConsumed = findViewById(R.id.tvConsumed);
@@ -94,79 +98,67 @@ public class InventoryActivity extends AppCompatActivity {
                 }
             }
             selectedCategory = selected;
-            renderItems(selectedCategory);
-            updateOverview(selectedCategory);
+            inventoryViewModel.setCategory(selectedCategory);
             Toast.makeText(this, "Category: " + selected, Toast.LENGTH_SHORT).show();
         });
 
-        // Render when first entering the page
-        renderItems(selectedCategory);
-        updateOverview(selectedCategory);
-        // Observe inventory items for real-time updates
-        inventoryViewModel.getInventoryItems().observe(this, items -> {
-            renderItems(selectedCategory);
-            updateOverview(selectedCategory);
-        });
-    }
+        // Search field narrows the list; the view model debounces lookups while typing
+        EditText inputSearch = findViewById(R.id.inputSearchInventory);
+        inputSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
 
-    private void importPurchasedItems() {
-        // Initialize ShoppingListRepository
-        ShoppingListRepository shoppingListRepository = ShoppingListRepository.getInstance(getApplication());
-
-        // Get all paid items
-        List<ShoppingItem> purchasedItems = shoppingListRepository.getPurchasedItems();
-
-        if (purchasedItems.isEmpty()) {
-            Toast.makeText(InventoryActivity.this, "No paid items to import", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        // Convert paid items to InventoryItem and add to inventory
-        List<Future<Void>> futures = new ArrayList<>();
-        for (ShoppingItem item : purchasedItems) {
-            // Generate unique ID
-            String id = UUID.randomUUID().toString();
-
-            // Create InventoryItem object (default category: "Other")
-            InventoryItem inventoryItem = new InventoryItem(
-                    id,
-                    item.getName(),
-                    item.getQuantity(),
-                    "Other", // Default category
-                    null, // No expiry date
-                    item.getCreatedAt() // Use shopping item creation time
-            );
-
-            // Add to inventory (async operation, save Future)
-            futures.add(inventoryViewModel.addItem(inventoryItem));
-            // Delete imported items from shopping list
-            shoppingListRepository.deleteItem(item);
-        }
-
-        // Wait for all async operations to complete
-        for (Future<Void> future : futures) {
-            try {
-                future.get(); // Block until operation completes
-            } catch (Exception e) {
-                e.printStackTrace();
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
             }
-        }
 
-        // Refresh UI to show newly imported items
-        renderItems(selectedCategory);
-        updateOverview(selectedCategory);
+            @Override
+            public void afterTextChanged(Editable s) {
+                inventoryViewModel.setSearchQuery(s.toString());
+            }
+        });
 
-        // Display import success message
-        Toast.makeText(InventoryActivity.this, "Imported " + purchasedItems.size() + " items to inventory",
-                Toast.LENGTH_SHORT).show();
+        // Observe the filtered list; DiffUtil only rebinds rows that changed
+        inventoryViewModel.getFilteredItems().observe(this, items -> {
+            inventoryListAdapter.submitList(items);
+            boolean empty = items.isEmpty();
+            textInventoryEmpty.setVisibility(empty ? View.VISIBLE : View.GONE);
+            recyclerInventory.setVisibility(empty ? View.GONE : View.VISIBLE);
+        });
+        // Overview numbers are aggregated by SQLite and refresh with the table
+        inventoryViewModel.getRemainingQuantity().observe(this, remaining -> tvRemain.setText(String.valueOf(remaining)));
+        inventoryViewModel.getExpiringSoonCount(SOON_DAYS).observe(this, soon -> tvSoon.setText(String.valueOf(soon)));
+        inventoryViewModel.getConsumedCount().observe(this, consumed -> tvConsumed.setText(String.valueOf(consumed)));
     }
 
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // Refresh when returning from the add page
-        renderItems(selectedCategory);
-        updateOverview(selectedCategory);
+    private void importPurchasedItems() {
+        MaterialButton btnImport = findViewById(R.id.btnImportFromList);
+        CharSequence label = btnImport.getText();
+        btnImport.setEnabled(false);
+
+        // One transaction on the write lane: insert merged rows, delete the shopping rows, log once per row
+        inventoryViewModel.importPurchasedItems(new ImportCallback() {
+            @Override
+            public void onProgress(int done, int total) {
+                btnImport.setText("Importing " + done + "/" + total);
+            }
+
+            @Override
+            public void onComplete(boolean success, int imported) {
+                btnImport.setText(label);
+                btnImport.setEnabled(true);
+                if (!success) {
+                    Toast.makeText(InventoryActivity.this, "Import failed", Toast.LENGTH_SHORT).show();
+                } else if (imported == 0) {
+                    Toast.makeText(InventoryActivity.this, "No paid items to import", Toast.LENGTH_SHORT).show();
+                } else {
+                    // Display import success message; the list refreshes through the LiveData observer
+                    Toast.makeText(InventoryActivity.this, "Imported " + imported + " items to inventory",
+                            Toast.LENGTH_SHORT).show();
+                }
+            }
+        });
     }
 
     private void updateButtonStates(MaterialButton selectedButton) {
@@ -188,79 +180,68 @@ public class InventoryActivity extends AppCompatActivity {
         }).start();
     }
 
-    private void renderItems(String category) {
-        java.util.List<InventoryItem> items = inventoryViewModel.getInventoryItems().getValue();
-        if (items == null) {
-            items = new java.util.ArrayList<>();
-        }
-
-        itemsContainer.removeAllViews();
-
-        java.text.SimpleDateFormat df = new java.text.SimpleDateFormat("MM-dd-yyyy", java.util.Locale.getDefault());
-
-        for (InventoryItem it : items) {
-            if (!"All".equalsIgnoreCase(category) && !it.category.equalsIgnoreCase(category)) {
-                continue;
-            }
-            android.widget.LinearLayout row = new android.widget.LinearLayout(this);
-            row.setOrientation(android.widget.LinearLayout.HORIZONTAL);
-            row.setLayoutParams(new android.widget.LinearLayout.LayoutParams(
-                    android.widget.LinearLayout.LayoutParams.MATCH_PARENT,
-                    android.widget.LinearLayout.LayoutParams.WRAP_CONTENT));
-            row.setWeightSum(3f);
-            row.setPadding(0, dp(4), 0, dp(4));
-
-            android.widget.TextView name = new android.widget.TextView(this);
-            android.widget.TextView date = new android.widget.TextView(this);
-            android.widget.TextView qty = new android.widget.TextView(this);
-
-            android.widget.LinearLayout.LayoutParams lp = new android.widget.LinearLayout.LayoutParams(0,
-                    android.widget.LinearLayout.LayoutParams.WRAP_CONTENT, 1f);
-            name.setLayoutParams(lp);
-            date.setLayoutParams(lp);
-            qty.setLayoutParams(lp);
-
-            name.setText(it.name);
-            date.setText(df.format(new java.util.Date(it.createdAtMillis)));
-            qty.setText(String.valueOf(it.quantity));
-
-            itemsContainer.addView(row);
-            row.addView(name);
-            row.addView(date);
-            row.addView(qty);
-
-            // Click row -> show edit/delete options
-            row.setOnClickListener(v -> showItemActions(it));
-        }
-
-        if (itemsContainer.getChildCount() == 0) {
-            android.widget.TextView empty = new android.widget.TextView(this);
-            empty.setText("No items yet");
-            empty.setPadding(0, dp(6), 0, dp(6));
-            itemsContainer.addView(empty);
-        }
-    }
-
     // Show operation options
     private void showItemActions(InventoryItem item) {
         new android.app.AlertDialog.Builder(this)
                 .setTitle("Item actions")
-                .setItems(new CharSequence[]{"Edit", "Delete"}, (dialog, which) -> {
+                .setItems(new CharSequence[]{"Edit", "Use", "Delete"}, (dialog, which) -> {
                     if (which == 0) {
                         showEditDialog(item);
                     } else if (which == 1) {
+                        showConsumeDialog(item);
+                    } else if (which == 2) {
                         // Delete: cancel reminder + remove data
                         ExpiryReminderScheduler.cancelReminder(this, item.id);
                         inventoryViewModel.removeItem(item.id);
                         android.widget.Toast.makeText(this, "Deleted: " + item.name, android.widget.Toast.LENGTH_SHORT)
                                 .show();
-                        renderItems(selectedCategory);
-                        updateOverview(selectedCategory);
                     }
                 })
                 .show();
     }
 
+    // Use some of an item; stock is drawn from the earliest-expiring lots of that name first
+    private void showConsumeDialog(InventoryItem item) {
+        android.widget.EditText etQty = new android.widget.EditText(this);
+        etQty.setHint("Quantity");
+        etQty.setInputType(android.text.InputType.TYPE_CLASS_NUMBER);
+        etQty.setText("1");
+        int pad = dp(16);
+        android.widget.FrameLayout container = new android.widget.FrameLayout(this);
+        container.setPadding(pad, pad, pad, pad);
+        container.addView(etQty);
+
+        new android.app.AlertDialog.Builder(this)
+                .setTitle("Use " + item.name)
+                .setView(container)
+                .setPositiveButton("Use", (d, w) -> {
+                    int qty;
+                    try {
+                        qty = Integer.parseInt(etQty.getText().toString().trim());
+                    } catch (NumberFormatException e) {
+                        qty = 0;
+                    }
+                    if (qty <= 0) {
+                        Toast.makeText(this, "Please enter a quantity", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    inventoryViewModel.consume(item.name, qty, result -> {
+                        // Used-up lots no longer need their expiry reminder
+                        for (String lotId : result.emptiedLotIds) {
+                            ExpiryReminderScheduler.cancelReminder(this, lotId);
+                        }
+                        String message = "Used " + result.consumed + " x " + item.name;
+                        if (result.nextExpiry != null) {
+                            message += ", next expires " + new java.text.SimpleDateFormat("MM-dd-yyyy",
+                                    java.util.Locale.getDefault()).format(new java.util.Date(result.nextExpiry));
+                        }
+                        Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+                    });
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
     // Edit dialog
     private void showEditDialog(InventoryItem item) {
         android.widget.LinearLayout container = new android.widget.LinearLayout(this);
@@ -349,8 +330,6 @@ public class InventoryActivity extends AppCompatActivity {
                     inventoryViewModel.updateItem(updated);
                     android.widget.Toast.makeText(this, "Updated: " + updated.name, android.widget.Toast.LENGTH_SHORT)
                             .show();
-                    renderItems(selectedCategory);
-                    updateOverview(selectedCategory);
                 })
                 .show();
     }
@@ -359,51 +338,4 @@ public class InventoryActivity extends AppCompatActivity {
         float d = getResources().getDisplayMetrics().density;
         return (int) (value * d);
     }
-
-    private void updateOverview(String category) {
-        java.util.List<InventoryItem> items = inventoryViewModel.getInventoryItems().getValue();
-        if (items == null) {
-            items = new java.util.ArrayList<>();
-        }
-
-        long now = System.currentTimeMillis();
-        long soonWindow = SOON_DAYS * 24L * 60 * 60 * 1000;
-
-        int remaining = 0;
-        int soon = 0;
-
-        for (InventoryItem it : items) {
-            if (!"All".equalsIgnoreCase(category) && !it.category.equalsIgnoreCase(category)) {
-                continue;
-            }
-            remaining += Math.max(0, it.quantity);
-            if (it.expireDateMillis != null) {
-                long diff = it.expireDateMillis - now;
-                if (diff >= 0 && diff <= soonWindow) {
-                    soon++;
-                }
-            }
-        }
-
-        int consumed = 0;
-        java.util.List<String> logs = inventoryViewModel.getLogs();
-        for (String line : logs) {
-            if (!line.contains(" | OUT | "))
-                continue;
-            if (!"All".equalsIgnoreCase(category)) {
-                String[] parts = line.split(" \\| ");
-                // Expected format: time | OUT | name xqty | category
-                if (parts.length >= 4) {
-                    String cat = parts[3].trim();
-                    if (!category.equalsIgnoreCase(cat))
-                        continue;
-                }
-            }
-            consumed++;
-        }
-
-        tvRemain.setText(String.valueOf(remaining));
-        tvSoon.setText(String.valueOf(soon));
-        tvConsumed.setText(String.valueOf(consumed));
-    }
-}
\ No newline at end of file
+}
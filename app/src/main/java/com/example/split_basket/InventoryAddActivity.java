@@ -176,27 +176,15 @@ public class InventoryAddActivity extends AppCompatActivity {
     }
 
     private String inferCategory(java.util.List<com.google.mlkit.vision.label.ImageLabel> labels) {
-        java.util.Set<String> texts = new java.util.HashSet<>();
+        // Labels come most confident first; the first one naming a known item decides
         for (com.google.mlkit.vision.label.ImageLabel l : labels) {
-            texts.add(l.getText().toLowerCase());
+            String category = ItemNames.guessCategory(l.getText());
+            if (category != null)
+                return category;
         }
-        // Simple rule mapping, can be expanded as needed
-        if (containsAny(texts, "beef", "pork", "chicken", "meat", "lamb"))
-            return "Meat";
-        if (containsAny(texts, "apple", "banana", "orange", "grape", "fruit"))
-            return "Fruit";
-        if (containsAny(texts, "cabbage", "carrot", "lettuce", "broccoli", "vegetable"))
-            return "Vegetable";
         return "Other";
     }
 
-    private boolean containsAny(java.util.Set<String> set, String... keys) {
-        for (String k : keys)
-            if (set.contains(k))
-                return true;
-        return false;
-    }
-
     private void setSpinnerCategory(String category) {
         // spinnerCat's adapter content is ["Vegetable", "Meat", "Fruit", "Other"]
         String[] cats = new String[]{"Vegetable", "Meat", "Fruit", "Other"};
@@ -209,30 +197,13 @@ public class InventoryAddActivity extends AppCompatActivity {
         // Use existing spinnerCat
         if (label == null || spinnerCat == null || spinnerCat.getAdapter() == null)
             return;
-        String l = label.toLowerCase();
-        int index;
-
-        if (containsAny(l, "apple", "banana", "orange", "grape", "peach", "pear", "mango", "strawberry", "pineapple",
-                "lemon", "lime")) {
-            index = findSpinnerIndex("Fruit");
-        } else if (containsAny(l, "broccoli", "carrot", "cucumber", "tomato", "onion", "potato", "lettuce", "pepper")) {
-            index = findSpinnerIndex("Vegetable");
-        } else if (containsAny(l, "beef", "chicken", "pork", "fish", "shrimp", "meat")) {
-            index = findSpinnerIndex("Meat");
-        } else {
-            index = findSpinnerIndex("Other");
-        }
+        // Word lookup on the canonical name, so "Strawberries" and "Chicken breasts" are recognised too
+        String category = ItemNames.guessCategory(label);
+        int index = findSpinnerIndex(category != null ? category : "Other");
         if (index >= 0)
             spinnerCat.setSelection(index);
     }
 
-    private boolean containsAny(String text, String... keys) {
-        for (String k : keys)
-            if (text.contains(k))
-                return true;
-        return false;
-    }
-
     private int findSpinnerIndex(String targetText) {
         if (spinnerCat == null || spinnerCat.getAdapter() == null)
             return -1;
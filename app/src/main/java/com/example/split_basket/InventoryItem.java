@@ -1,20 +1,36 @@
 package com.example.split_basket;
 
 import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "inventory_items")
+@Entity(tableName = "inventory_items", indices = {@Index("category"), @Index("expireDateMillis"),
+        @Index(value = {"nameKey", "category", "expiryDay"}, unique = true), @Index({"nameKey", "expiryDay"})})
 public class InventoryItem {
+    // Sorts after every real day, so lots without an expiry date are used last
+    public static final long NO_EXPIRY_DAY = Long.MAX_VALUE;
+    // Stored for items without a category: NULL never equals NULL, so such rows would not merge
+    public static final String DEFAULT_CATEGORY = "Other";
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
     @PrimaryKey
     @NonNull
     public String id;
     public String name;
     public int quantity;
+    // NOCASE so category filters match case-insensitively and still use the index
+    @ColumnInfo(collate = ColumnInfo.NOCASE)
     public String category; // Vegetable/Meat/Fruit/Other
     public Long expireDateMillis; // nullable
     public long createdAtMillis;
     public String photoUri; // Added: nullable photo URI
+    // Merge key, see refreshMergeKey(): adds of the same name, category and expiry day share one row.
+    // Rows with the same nameKey are the lots of one item, consumed in expiryDay order.
+    @NonNull
+    public String nameKey = "";
+    public long expiryDay = NO_EXPIRY_DAY;
 
     // Default constructor for Room
     public InventoryItem() {
@@ -41,6 +57,23 @@ public class InventoryItem {
         this.photoUri = photoUri;
     }
 
+    /**
+     * Recompute the merge key columns from name and expiry date, and default a missing category.
+     * Call before every write.
+     */
+    public void refreshMergeKey() {
+        nameKey = ItemNames.canonical(name);
+        if (category == null) {
+            category = DEFAULT_CATEGORY;
+        }
+        expiryDay = expiryDayOf(expireDateMillis);
+    }
+
+    // Expiry bucket: the UTC day of the expiry date, NO_EXPIRY_DAY without one
+    public static long expiryDayOf(Long expireDateMillis) {
+        return expireDateMillis == null ? NO_EXPIRY_DAY : Math.floorDiv(expireDateMillis, DAY_MILLIS);
+    }
+
     // Builder pattern for easier creation
     public static class Builder {
         private String id;
@@ -0,0 +1,89 @@
+package com.example.split_basket;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Objects;
+
+public class InventoryListAdapter extends ListAdapter<InventoryItem, InventoryListAdapter.ItemViewHolder> {
+
+    private static final DiffUtil.ItemCallback<InventoryItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<InventoryItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull InventoryItem oldItem, @NonNull InventoryItem newItem) {
+            return oldItem.id.equals(newItem.id);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull InventoryItem oldItem, @NonNull InventoryItem newItem) {
+            return oldItem.quantity == newItem.quantity
+                    && oldItem.createdAtMillis == newItem.createdAtMillis
+                    && Objects.equals(oldItem.name, newItem.name)
+                    && Objects.equals(oldItem.category, newItem.category)
+                    && Objects.equals(oldItem.expireDateMillis, newItem.expireDateMillis);
+        }
+    };
+    private final ItemClickListener listener;
+    // Formatter is reused for every bind (binding only happens on the main thread)
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("MM-dd-yyyy", Locale.getDefault());
+    private final Date reusableDate = new Date();
+
+    public InventoryListAdapter(@NonNull ItemClickListener listener) {
+        super(DIFF_CALLBACK);
+        this.listener = listener;
+    }
+
+    @NonNull
+    @Override
+    public ItemViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_inventory, parent, false);
+        return new ItemViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ItemViewHolder holder, int position) {
+        holder.bind(getItem(position));
+    }
+
+    public interface ItemClickListener {
+        void onItemClicked(@NonNull InventoryItem item);
+    }
+
+    class ItemViewHolder extends RecyclerView.ViewHolder {
+        private final TextView textName;
+        private final TextView textDate;
+        private final TextView textQuantity;
+        private InventoryItem current;
+
+        ItemViewHolder(@NonNull View itemView) {
+            super(itemView);
+            textName = itemView.findViewById(R.id.textInventoryName);
+            textDate = itemView.findViewById(R.id.textInventoryDate);
+            textQuantity = itemView.findViewById(R.id.textInventoryQuantity);
+            // Click row -> show edit/delete options
+            itemView.setOnClickListener(v -> {
+                if (current != null && getBindingAdapterPosition() != RecyclerView.NO_POSITION) {
+                    listener.onItemClicked(current);
+                }
+            });
+        }
+
+        void bind(InventoryItem item) {
+            current = item;
+            textName.setText(item.name);
+            reusableDate.setTime(item.createdAtMillis);
+            textDate.setText(dateFormat.format(reusableDate));
+            textQuantity.setText(String.valueOf(item.quantity));
+        }
+    }
+}
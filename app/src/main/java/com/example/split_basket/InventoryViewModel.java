@@ -1,26 +1,74 @@
 package com.example.split_basket;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 
+import com.example.split_basket.callback.ImportCallback;
+import com.example.split_basket.callback.QueryCallback;
+import com.example.split_basket.data.ConsumeResult;
+import com.example.split_basket.data.DatabaseScheduler;
+import com.example.split_basket.data.DebouncedSearch;
 import com.example.split_basket.data.InventoryRepository;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class InventoryViewModel extends AndroidViewModel {
+    // The expiring-soon window moves with the clock; a minute is finer than any expiry date
+    private static final long TICK_MILLIS = 60 * 1000;
     private final InventoryRepository repository;
     private final LiveData<List<InventoryItem>> inventoryItems;
+    private final MediatorLiveData<List<InventoryItem>> filteredItems = new MediatorLiveData<>();
+    // Bumped on every refilter so a slow, stale filter pass never overwrites a newer one
+    private final AtomicInteger filterGeneration = new AtomicInteger();
+    private final MutableLiveData<String> selectedCategory = new MutableLiveData<>("All");
+    private volatile String category = "All";
+    private final DebouncedSearch<InventoryItem> search;
+    // Main thread only; while searching, the category filter applies to searchResults
+    private boolean searching;
+    private List<InventoryItem> searchResults;
+    // Selected category, emitted again every tick so the expiring count is queried afresh
+    private final MediatorLiveData<String> expiringTrigger = new MediatorLiveData<>();
+    private final Handler tickHandler = new Handler(Looper.getMainLooper());
+    private final Runnable tick = new Runnable() {
+        @Override
+        public void run() {
+            expiringTrigger.setValue(selectedCategory.getValue());
+            tickHandler.postDelayed(this, TICK_MILLIS);
+        }
+    };
 
     public InventoryViewModel(Application application) {
         super(application);
         repository = InventoryRepository.getInstance(application);
         inventoryItems = repository.observeItems();
+        search = repository.newSearch(results -> {
+            searchResults = results;
+            refilter();
+        });
+        filteredItems.addSource(inventoryItems, items -> {
+            // Search results come from their own query; rerun it so edits show up in them
+            if (searching) {
+                search.refresh();
+            } else {
+                refilter();
+            }
+        });
+        expiringTrigger.addSource(selectedCategory, expiringTrigger::setValue);
+        tickHandler.postDelayed(tick, TICK_MILLIS);
     }
 
     /**
@@ -30,6 +78,90 @@ public class InventoryViewModel extends AndroidViewModel {
         return inventoryItems;
     }
 
+    /**
+     * Returns LiveData of the items in the selected category
+     */
+    public LiveData<List<InventoryItem>> getFilteredItems() {
+        return filteredItems;
+    }
+
+    /**
+     * Selects the category shown by {@link #getFilteredItems()}, "All" shows everything
+     */
+    public void setCategory(String category) {
+        this.category = category;
+        selectedCategory.setValue(category);
+        refilter();
+    }
+
+    /**
+     * Narrows {@link #getFilteredItems()} to items whose name or category has words starting with the
+     * words of the text. Call on every keystroke; empty text shows all items again.
+     */
+    public void setSearchQuery(@Nullable String text) {
+        searching = text != null && !text.trim().isEmpty();
+        if (searching) {
+            search.setQuery(text);
+        } else {
+            search.cancel();
+            searchResults = null;
+            refilter();
+        }
+    }
+
+    /**
+     * Returns the total quantity in stock for the selected category
+     */
+    public LiveData<Integer> getRemainingQuantity() {
+        return Transformations.switchMap(selectedCategory,
+                selected -> repository.observeTotalQuantity(toQueryCategory(selected)));
+    }
+
+    /**
+     * Returns the number of items in the selected category expiring within the given days from now.
+     * Recounted when the inventory changes and once a minute.
+     */
+    public LiveData<Integer> getExpiringSoonCount(int days) {
+        long windowMillis = days * 24L * 60 * 60 * 1000;
+        return Transformations.switchMap(expiringTrigger,
+                selected -> repository.observeExpiringCount(toQueryCategory(selected), windowMillis));
+    }
+
+    // "All" means no category filter
+    private static String toQueryCategory(String selected) {
+        return "All".equalsIgnoreCase(selected) ? null : selected;
+    }
+
+    // Filter off the main thread, then publish the result
+    private void refilter() {
+        List<InventoryItem> items = searching ? searchResults : inventoryItems.getValue();
+        if (items == null) {
+            return;
+        }
+        String selected = category;
+        int generation = filterGeneration.incrementAndGet();
+        DatabaseScheduler scheduler = DatabaseScheduler.getInstance();
+        scheduler.read(DatabaseScheduler.Priority.UI, () -> {
+            List<InventoryItem> result;
+            if ("All".equalsIgnoreCase(selected)) {
+                result = items;
+            } else {
+                result = new ArrayList<>();
+                for (InventoryItem it : items) {
+                    if (it.category != null && it.category.equalsIgnoreCase(selected)) {
+                        result.add(it);
+                    }
+                }
+            }
+            // Generation is bumped on the main thread, so checking it there is race-free
+            scheduler.postToMain(() -> {
+                if (generation == filterGeneration.get()) {
+                    filteredItems.setValue(result);
+                }
+            });
+        });
+    }
+
     /**
      * Adds a new inventory item
      */
@@ -37,6 +169,13 @@ public class InventoryViewModel extends AndroidViewModel {
         return repository.addItem(item);
     }
 
+    /**
+     * Moves purchased shopping list items into inventory in one transaction
+     */
+    public void importPurchasedItems(@NonNull ImportCallback callback) {
+        repository.importPurchasedItems(callback);
+    }
+
     /**
      * Updates an existing inventory item
      */
@@ -44,6 +183,13 @@ public class InventoryViewModel extends AndroidViewModel {
         repository.updateItem(item);
     }
 
+    /**
+     * Uses up quantity units of an item, earliest-expiring lots first
+     */
+    public void consume(@NonNull String name, int quantity, @NonNull QueryCallback<ConsumeResult> callback) {
+        repository.consume(name, quantity, callback);
+    }
+
     /**
      * Removes an inventory item by ID
      */
@@ -59,10 +205,17 @@ public class InventoryViewModel extends AndroidViewModel {
     }
 
     /**
-     * Returns all inventory logs
+     * Returns the number of items taken out of stock in the selected category
      */
-    public List<String> getLogs() {
-        return repository.getLogs();
+    public LiveData<Integer> getConsumedCount() {
+        return Transformations.switchMap(selectedCategory,
+                selected -> repository.observeConsumedCount(toQueryCategory(selected)));
+    }
+
+    @Override
+    protected void onCleared() {
+        search.cancel();
+        tickHandler.removeCallbacks(tick);
     }
 
     /**
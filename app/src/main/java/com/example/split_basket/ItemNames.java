@@ -0,0 +1,154 @@
+package com.example.split_basket;
+
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Keys used to match item and member names regardless of spelling details
+ */
+public final class ItemNames {
+
+    // "(x12)", "[organic]": notes on the pack, not part of the item
+    private static final Pattern ANNOTATION = Pattern.compile("\\([^)]*\\)|\\[[^\\]]*\\]");
+    // Pack counts such as "x12", "12x", "×6" or "12"
+    private static final Pattern COUNT = Pattern.compile("[x×]?\\d+[x×]?");
+    private static final Map<String, String> IRREGULAR_PLURALS = new HashMap<>();
+    private static final Set<String> INVARIANT_WORDS = new HashSet<>(Arrays.asList(
+            "molasses", "swiss", "grits", "series"));
+    // Singulars ending in "ie", so "cookies" is not turned into "cooky"
+    private static final Set<String> IE_WORDS = new HashSet<>(Arrays.asList(
+            "cookie", "brownie", "smoothie", "veggie", "pie", "hoagie"));
+    // Canonical name for other names of the same item, keyed by canonical form
+    private static final Map<String, String> SYNONYMS = new HashMap<>();
+    private static final Map<String, String> CATEGORY_BY_WORD = new HashMap<>();
+
+    static {
+        IRREGULAR_PLURALS.put("leaves", "leaf");
+        IRREGULAR_PLURALS.put("loaves", "loaf");
+        IRREGULAR_PLURALS.put("halves", "half");
+        IRREGULAR_PLURALS.put("knives", "knife");
+        IRREGULAR_PLURALS.put("geese", "goose");
+        IRREGULAR_PLURALS.put("mice", "mouse");
+
+        SYNONYMS.put("scallion", "spring onion");
+        SYNONYMS.put("green onion", "spring onion");
+        SYNONYMS.put("aubergine", "eggplant");
+        SYNONYMS.put("courgette", "zucchini");
+        SYNONYMS.put("coriander", "cilantro");
+        SYNONYMS.put("capsicum", "bell pepper");
+        SYNONYMS.put("rocket", "arugula");
+        SYNONYMS.put("garbanzo", "chickpea");
+        SYNONYMS.put("garbanzo bean", "chickpea");
+        SYNONYMS.put("prawn", "shrimp");
+        SYNONYMS.put("minced beef", "ground beef");
+        SYNONYMS.put("beef mince", "ground beef");
+
+        for (String word : new String[]{"fruit", "apple", "banana", "orange", "grape", "peach", "pear", "mango",
+                "strawberry", "pineapple", "lemon", "lime", "grapefruit", "blueberry", "cherry", "kiwi", "melon",
+                "watermelon", "plum"}) {
+            CATEGORY_BY_WORD.put(word, "Fruit");
+        }
+        for (String word : new String[]{"vegetable", "broccoli", "carrot", "cucumber", "tomato", "onion", "potato",
+                "lettuce", "pepper", "cabbage", "spinach", "eggplant", "zucchini", "celery", "garlic", "mushroom"}) {
+            CATEGORY_BY_WORD.put(word, "Vegetable");
+        }
+        for (String word : new String[]{"meat", "beef", "pork", "chicken", "lamb", "fish", "shrimp", "bacon",
+                "sausage", "ham", "turkey", "salmon"}) {
+            CATEGORY_BY_WORD.put(word, "Meat");
+        }
+    }
+
+    private ItemNames() {
+    }
+
+    /**
+     * Lowercased, trimmed, inner whitespace collapsed: " Whole  Milk" and "whole milk" share a key
+     */
+    public static String key(String name) {
+        if (name == null)
+            return "";
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Key for item names: {@link #key(String)}, plus pack notes and counts dropped, words made singular and
+     * synonyms mapped, so "Eggs", "egg" and "eggs (x12)" share the key "egg". Member names use
+     * {@link #key(String)}, where plurals carry no meaning.
+     */
+    public static String canonical(String name) {
+        String key = key(name);
+        String stripped = key(ANNOTATION.matcher(key).replaceAll(" "));
+        if (stripped.isEmpty())
+            return key;
+        String[] words = stripped.split(" ");
+        StringBuilder canonical = new StringBuilder(stripped.length());
+        for (String word : words) {
+            // A bare count is kept when it is the whole name
+            if (words.length > 1 && COUNT.matcher(word).matches())
+                continue;
+            if (canonical.length() > 0) {
+                canonical.append(' ');
+            }
+            canonical.append(singular(word));
+        }
+        if (canonical.length() == 0)
+            return key;
+        String result = canonical.toString();
+        String synonym = SYNONYMS.get(result);
+        return synonym != null ? synonym : result;
+    }
+
+    /**
+     * Inventory category suggested by a word of the item name: "Fruit", "Vegetable" or "Meat",
+     * null when no word is known
+     */
+    @Nullable
+    public static String guessCategory(String name) {
+        String canonical = canonical(name);
+        String category = CATEGORY_BY_WORD.get(canonical);
+        if (category != null)
+            return category;
+        for (String word : canonical.split(" ")) {
+            category = CATEGORY_BY_WORD.get(word);
+            if (category != null)
+                return category;
+        }
+        return null;
+    }
+
+    // English plural rules for grocery words; words with digits or other scripts are left alone
+    static String singular(String word) {
+        String irregular = IRREGULAR_PLURALS.get(word);
+        if (irregular != null)
+            return irregular;
+        int length = word.length();
+        if (length < 4 || INVARIANT_WORDS.contains(word) || !isLatinLetters(word))
+            return word;
+        if (word.endsWith("ies")) {
+            String stem = word.substring(0, length - 3);
+            return IE_WORDS.contains(stem + "ie") ? stem + "ie" : stem + "y";
+        }
+        if (word.endsWith("oes") || word.endsWith("ches") || word.endsWith("shes") || word.endsWith("xes")
+                || word.endsWith("sses") || word.endsWith("zzes"))
+            return word.substring(0, length - 2);
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is"))
+            return word.substring(0, length - 1);
+        return word;
+    }
+
+    private static boolean isLatinLetters(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < 'a' || c > 'z')
+                return false;
+        }
+        return true;
+    }
+}
@@ -2,7 +2,9 @@ package com.example.split_basket;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.Editable;
 import android.text.TextUtils;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.TextView;
@@ -16,6 +18,8 @@ import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.split_basket.data.BillRepository;
+import com.example.split_basket.data.ItemFrequency;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
@@ -24,12 +28,19 @@ import com.google.android.material.snackbar.Snackbar;
 import com.google.android.material.textfield.TextInputEditText;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class ListActivity extends AppCompatActivity implements ShoppingListAdapter.ItemInteractionListener {
 
     private final List<ShoppingItem> currentItems = new ArrayList<>();
+    private final List<ItemFrequency> frequentItems = new ArrayList<>();
+    // Measured chip widths per label; labels repeat across refreshes, so each is measured once
+    private final Map<String, Integer> chipWidthCache = new HashMap<>();
+    private Chip measuringChip;
     private MaterialButton btnHome, btnInventory, btnList, btnBill;
     private TextView textSummary;
     private TextView textEmptyState;
@@ -55,39 +66,30 @@ public class ListActivity extends AppCompatActivity implements ShoppingListAdapt
         Intent intent = getIntent();
         if (intent != null) {
             ArrayList<String> newItems = intent.getStringArrayListExtra(HomeActivity.EXTRA_NEW_LIST_ITEMS);
-            if (newItems != null && !newItems.isEmpty()) {
+            if (newItems != null && !newItems.isEmpty() && viewModel != null) {
+                String addedBy = getString(R.string.default_added_by);
+                List<ShoppingItem> items = new ArrayList<>(newItems.size());
                 // Split each item into name and quantity
                 for (String itemStr : newItems) {
-                    final String[] name = {itemStr};
-                    final int[] quantity = {1};
+                    String name = itemStr;
+                    int quantity = 1;
 
                     // Extract quantity if present (format: "Item (x1)")
                     if (itemStr.contains(" (x")) {
                         int start = itemStr.indexOf(" (x");
                         int end = itemStr.indexOf(")", start);
                         try {
-                            String quantityStr = itemStr.substring(start + 3, end);
-                            quantity[0] = Integer.parseInt(quantityStr);
-                            name[0] = itemStr.substring(0, start);
+                            quantity = Integer.parseInt(itemStr.substring(start + 3, end));
+                            name = itemStr.substring(0, start);
                         } catch (Exception e) {
                             // Fallback to default quantity if parsing fails
                         }
                     }
-
-                    // Add item to shopping list
-                    if (viewModel != null) {
-                        viewModel.addItem(name[0], quantity[0], getString(R.string.default_added_by),
-                                (success, message) -> {
-                                    // Show feedback only for the first item to avoid spamming
-                                    if (newItems.indexOf(itemStr) == 0) {
-                                        String toastMessage = success
-                                                ? getString(R.string.chip_added_feedback, name[0], quantity[0])
-                                                : message;
-                                        Toast.makeText(this, toastMessage, Toast.LENGTH_SHORT).show();
-                                    }
-                                });
-                    }
+                    items.add(new ShoppingItem(name, addedBy, quantity));
                 }
+
+                // One insert transaction and one summary message for the whole list
+                viewModel.addItems(items, this::handleAddResult);
             }
         }
     }
@@ -130,15 +132,43 @@ public class ListActivity extends AppCompatActivity implements ShoppingListAdapt
             if (items != null) {
                 currentItems.addAll(items);
             }
-            adapter.submitList(new ArrayList<>(currentItems));
+            showItems();
             refreshSummary();
             refreshRecommendations();
         });
+        // Search results replace the shown rows only; summary and selection keep using the whole list
+        viewModel.getSearchResults().observe(this, results -> showItems());
+        TextInputEditText inputSearch = findViewById(R.id.inputSearchList);
+        inputSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                viewModel.setSearchQuery(s.toString());
+            }
+        });
+    }
+
+    private void showItems() {
+        List<ShoppingItem> results = viewModel.getSearchResults().getValue();
+        adapter.submitList(new ArrayList<>(results != null ? results : currentItems));
     }
 
     private void setupRecommendations() {
-        // Initial population based on current items (observer will also refresh)
-        refreshRecommendations();
+        // Recommendations come from the persisted purchase-frequency index
+        viewModel.getFrequentItems().observe(this, frequencies -> {
+            frequentItems.clear();
+            if (frequencies != null) {
+                frequentItems.addAll(frequencies);
+            }
+            refreshRecommendations();
+        });
     }
 
     private void setupActions() {
@@ -219,25 +249,24 @@ public class ListActivity extends AppCompatActivity implements ShoppingListAdapt
             return;
         group.removeAllViews();
 
-        // Count frequency of names (case-insensitive)
-        java.util.Map<String, Integer> freq = new java.util.HashMap<>();
-        java.util.Map<String, String> canonical = new java.util.HashMap<>();
+        // Names already waiting on the list are not worth recommending
+        Set<String> listed = new HashSet<>();
         for (ShoppingItem item : currentItems) {
-            String name = item.getName() == null ? "" : item.getName().trim();
-            if (name.isEmpty())
-                continue;
-            String key = name.toLowerCase();
-            Integer currentCount = freq.get(key);
-            int newCount = (currentCount != null ? currentCount : 0) + 1;
-            freq.put(key, newCount);
-            // preserve first-seen original casing for display
-            if (!canonical.containsKey(key))
-                canonical.put(key, name);
+            if (!item.isPurchased()) {
+                listed.add(item.getNameKey());
+            }
+        }
+        List<String> candidates = new ArrayList<>();
+        for (ItemFrequency frequency : frequentItems) {
+            if (!listed.contains(frequency.nameKey)) {
+                candidates.add(frequency.displayName);
+            }
+        }
+        if (candidates.isEmpty() && frequentItems.isEmpty()) {
+            candidates.add(getString(R.string.bread));
+            candidates.add(getString(R.string.tissue));
+            candidates.add(getString(R.string.eggs));
         }
-
-        // Build sorted list by count desc
-        List<java.util.Map.Entry<String, Integer>> entries = new java.util.ArrayList<>(freq.entrySet());
-        Collections.sort(entries, (a, b) -> Integer.compare(b.getValue(), a.getValue()));
 
         int maxWidth = group.getWidth();
         if (maxWidth == 0) {
@@ -246,34 +275,12 @@ public class ListActivity extends AppCompatActivity implements ShoppingListAdapt
             int margin = (int) (16 * getResources().getDisplayMetrics().density) * 2;
             maxWidth = Math.max(0, screen - margin);
         }
-
-        int spacing = 0;
-        try {
-            spacing = (Integer) ChipGroup.class.getMethod("getChipSpacingHorizontal").invoke(group);
-        } catch (Exception ignored) {
-        }
+        int spacing = group.getChipSpacingHorizontal();
 
         int lineWidth = 0;
         int added = 0;
-        java.util.List<String> candidates = new java.util.ArrayList<>();
-        for (java.util.Map.Entry<String, Integer> e : entries) {
-            // Replace getOrDefault to support API 23
-            candidates.add(canonical.containsKey(e.getKey()) ? canonical.get(e.getKey()) : e.getKey());
-        }
-        if (candidates.isEmpty()) {
-            candidates.add(getString(R.string.bread));
-            candidates.add(getString(R.string.tissue));
-            candidates.add(getString(R.string.eggs));
-        }
-
         for (String display : candidates) {
-            Chip temp = new Chip(this);
-            temp.setText(display);
-            temp.setCheckable(false);
-            int specW = View.MeasureSpec.makeMeasureSpec(maxWidth, View.MeasureSpec.AT_MOST);
-            int specH = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
-            temp.measure(specW, specH);
-            int w = temp.getMeasuredWidth();
+            int w = measureChipWidth(display, maxWidth);
             int nextWidth = added == 0 ? w : lineWidth + spacing + w;
             if (nextWidth > maxWidth) {
                 break; // do not exceed one line
@@ -284,6 +291,24 @@ public class ListActivity extends AppCompatActivity implements ShoppingListAdapt
         }
     }
 
+    // Chip width for a label, measured once per label with a reused chip
+    private int measureChipWidth(@NonNull String label, int maxWidth) {
+        Integer cached = chipWidthCache.get(label);
+        if (cached != null)
+            return cached;
+        if (measuringChip == null) {
+            measuringChip = new Chip(this);
+            measuringChip.setCheckable(false);
+        }
+        measuringChip.setText(label);
+        int specW = View.MeasureSpec.makeMeasureSpec(maxWidth, View.MeasureSpec.AT_MOST);
+        int specH = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        measuringChip.measure(specW, specH);
+        int width = measuringChip.getMeasuredWidth();
+        chipWidthCache.put(label, width);
+        return width;
+    }
+
     private void addRecommendationChip(@NonNull ChipGroup group, @NonNull String name) {
         Chip chip = new Chip(this);
         chip.setText(name);
@@ -330,12 +355,43 @@ public class ListActivity extends AppCompatActivity implements ShoppingListAdapt
                             Toast.makeText(this, R.string.action_mark_all_purchased, Toast.LENGTH_SHORT).show();
                         }
                     })
+                    .setNeutralButton(R.string.action_create_bill, (dialog, which) -> showCreateBillDialog(remaining))
                     .setNegativeButton(android.R.string.cancel, null);
         }
 
         dialogBuilder.show();
     }
 
+    // Turn the remaining items into one itemised bill; the items are marked purchased in the same write
+    private void showCreateBillDialog(@NonNull List<ShoppingItem> items) {
+        View dialogView = LayoutInflater.from(this).inflate(R.layout.dialog_bill_from_items, null, false);
+        TextInputEditText inputName = dialogView.findViewById(R.id.inputItemsBillName);
+        TextInputEditText inputTotal = dialogView.findViewById(R.id.inputItemsBillTotal);
+
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(R.string.bill_from_items_title)
+                .setView(dialogView)
+                .setPositiveButton(R.string.action_create_bill, (dialog, which) -> {
+                    String name = inputName.getText() != null ? inputName.getText().toString().trim() : "";
+                    String totalText = inputTotal.getText() != null ? inputTotal.getText().toString().trim() : "";
+
+                    if (TextUtils.isEmpty(name)) {
+                        name = getString(R.string.settlement);
+                    }
+
+                    Money total = Money.parseOrZero(totalText);
+                    if (total.getMinor() <= 0) {
+                        Toast.makeText(this, R.string.error_bill_total_required, Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+
+                    BillRepository.getInstance(this).createBillFromShoppingItems(name, total, items,
+                            this::handleAddResult);
+                })
+                .setNegativeButton(R.string.action_cancel, null)
+                .show();
+    }
+
     private void refreshSummary() {
         int total = currentItems.size();
         int purchased = 0;
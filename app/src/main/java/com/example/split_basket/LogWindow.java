@@ -0,0 +1,130 @@
+package com.example.split_basket;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bounded, newest-first window of log entries for {@link EventLogManager}.
+ * <p>
+ * Every update publishes a new immutable snapshot (a shared-tail linked list), so prepend is O(1)
+ * and readers never take a lock: a snapshot read is a single atomic load.
+ */
+final class LogWindow {
+
+    private static final Snapshot EMPTY = new Snapshot(null, 0);
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(EMPTY);
+    private volatile int capacity;
+
+    LogWindow(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    boolean isEmpty() {
+        return current.get().size == 0;
+    }
+
+    /**
+     * Newest-first snapshot, unmodifiable. Repeated calls without updates return the same list.
+     */
+    List<EventLogManager.LogEntry> snapshot() {
+        return current.get().asList();
+    }
+
+    void prepend(EventLogManager.LogEntry entry) {
+        Snapshot prev;
+        Snapshot next;
+        do {
+            prev = current.get();
+            int size = Math.min(prev.size + 1, capacity);
+            Node head = new Node(entry, prev.head);
+            // Entries past the window stay reachable through the chain; cut it once it doubles
+            if (head.length > 2 * capacity) {
+                head = copy(head, size);
+            }
+            next = new Snapshot(head, size);
+        } while (!current.compareAndSet(prev, next));
+    }
+
+    void replace(List<EventLogManager.LogEntry> newestFirst) {
+        int size = Math.min(newestFirst.size(), capacity);
+        Node head = null;
+        for (int i = size - 1; i >= 0; i--) {
+            head = new Node(newestFirst.get(i), head);
+        }
+        current.set(new Snapshot(head, size));
+    }
+
+    void clear() {
+        current.set(EMPTY);
+    }
+
+    void setCapacity(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        Snapshot prev;
+        Snapshot next;
+        do {
+            prev = current.get();
+            if (prev.size <= this.capacity)
+                return;
+            next = new Snapshot(copy(prev.head, this.capacity), this.capacity);
+        } while (!current.compareAndSet(prev, next));
+    }
+
+    // First count nodes of the chain, as a new chain
+    private static Node copy(Node head, int count) {
+        EventLogManager.LogEntry[] entries = new EventLogManager.LogEntry[count];
+        Node node = head;
+        for (int i = 0; i < count && node != null; i++, node = node.next) {
+            entries[i] = node.entry;
+        }
+        Node copied = null;
+        for (int i = count - 1; i >= 0; i--) {
+            copied = new Node(entries[i], copied);
+        }
+        return copied;
+    }
+
+    private static final class Node {
+        final EventLogManager.LogEntry entry;
+        final Node next;
+        final int length; // nodes from here to the end of the chain
+
+        Node(EventLogManager.LogEntry entry, Node next) {
+            this.entry = entry;
+            this.next = next;
+            this.length = next == null ? 1 : next.length + 1;
+        }
+    }
+
+    private static final class Snapshot {
+        final Node head;
+        final int size;
+        // Materialized lazily; racing readers may build it twice, which is harmless
+        private volatile List<EventLogManager.LogEntry> list;
+
+        Snapshot(Node head, int size) {
+            this.head = head;
+            this.size = size;
+        }
+
+        List<EventLogManager.LogEntry> asList() {
+            List<EventLogManager.LogEntry> result = list;
+            if (result == null) {
+                List<EventLogManager.LogEntry> entries = new ArrayList<>(size);
+                Node node = head;
+                for (int i = 0; i < size && node != null; i++, node = node.next) {
+                    entries.add(node.entry);
+                }
+                result = Collections.unmodifiableList(entries);
+                list = result;
+            }
+            return result;
+        }
+    }
+}
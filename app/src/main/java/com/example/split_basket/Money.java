@@ -0,0 +1,140 @@
+package com.example.split_basket;
+
+import androidx.annotation.NonNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable amount of money, held as a whole number of minor units (cents) plus a currency code.
+ * All arithmetic is integer arithmetic, so totals and splits are exact.
+ */
+public final class Money {
+
+    public static final String DEFAULT_CURRENCY = "CNY";
+    private static final int MINOR_DIGITS = 2;
+
+    private final long minor;
+    @NonNull
+    private final String currency;
+
+    private Money(long minor, @NonNull String currency) {
+        this.minor = minor;
+        this.currency = currency;
+    }
+
+    public static Money of(long minor, String currency) {
+        return new Money(minor, currency != null ? currency : DEFAULT_CURRENCY);
+    }
+
+    public static Money zero(String currency) {
+        return of(0, currency);
+    }
+
+    /**
+     * Parse a display or input amount such as "¥ 389.50", "¥12" or "12.3" in {@link #DEFAULT_CURRENCY}.
+     * A symbol is skipped but never picks the currency: "$" and "¥" each stand for several currencies.
+     *
+     * @throws NumberFormatException if the text is not an amount
+     */
+    public static Money parse(String text) {
+        if (text == null)
+            throw new NumberFormatException("null amount");
+        String clean = text.replace("¥", "").replace("$", "").replace(",", "").trim();
+        try {
+            BigDecimal value = new BigDecimal(clean).setScale(MINOR_DIGITS, RoundingMode.HALF_UP);
+            return new Money(value.unscaledValue().longValueExact(), DEFAULT_CURRENCY);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("amount out of range: " + text);
+        }
+    }
+
+    /**
+     * Like {@link #parse(String)}, but returns zero for text that is not an amount
+     */
+    public static Money parseOrZero(String text) {
+        try {
+            return parse(text);
+        } catch (NumberFormatException e) {
+            return zero(DEFAULT_CURRENCY);
+        }
+    }
+
+    public long getMinor() {
+        return minor;
+    }
+
+    @NonNull
+    public String getCurrency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        if (!currency.equals(other.currency))
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        return new Money(Math.addExact(minor, other.minor), currency);
+    }
+
+    /**
+     * Split into the given number of shares that add up exactly to this amount.
+     * Leftover minor units go one each to the first shares.
+     */
+    public long[] allocate(int parts) {
+        if (parts <= 0)
+            throw new IllegalArgumentException("parts must be positive");
+        long[] shares = new long[parts];
+        long base = minor / parts;
+        long remainder = Math.abs(minor % parts);
+        long step = minor < 0 ? -1 : 1;
+        for (int i = 0; i < parts; i++) {
+            shares[i] = base + (i < remainder ? step : 0);
+        }
+        return shares;
+    }
+
+    /**
+     * Amount without symbol, always with MINOR_DIGITS decimals, e.g. "389.50"
+     */
+    public String toDecimalString() {
+        return BigDecimal.valueOf(minor, MINOR_DIGITS).toPlainString();
+    }
+
+    /**
+     * Amount for display, e.g. "$ 389.50"
+     */
+    public String format() {
+        return symbolOf(currency) + " " + toDecimalString();
+    }
+
+    public static String symbolOf(String currency) {
+        switch (currency) {
+            case "USD":
+                return "$";
+            case "CNY":
+                return "¥";
+            default:
+                return currency;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Money))
+            return false;
+        Money other = (Money) o;
+        return minor == other.minor && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minor) + currency.hashCode();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return format();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.split_basket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Turns per-member net balances into transfers that settle everyone.
+ * <p>
+ * Greedy min-cash-flow: the largest debtor repeatedly pays the largest creditor, so each step
+ * settles at least one member and there are at most (members - 1) transfers.
+ */
+public final class SettlementEngine {
+
+    private SettlementEngine() {
+    }
+
+    /**
+     * @param balances net balance per member in minor units; positive means the member is owed money
+     * @return transfers, largest first
+     */
+    public static List<Transfer> settle(Map<String, Long> balances) {
+        PriorityQueue<Party> creditors = new PriorityQueue<>((a, b) -> Long.compare(b.amount, a.amount));
+        PriorityQueue<Party> debtors = new PriorityQueue<>((a, b) -> Long.compare(b.amount, a.amount));
+        for (Map.Entry<String, Long> entry : balances.entrySet()) {
+            long net = entry.getValue();
+            if (net > 0) {
+                creditors.add(new Party(entry.getKey(), net));
+            } else if (net < 0) {
+                debtors.add(new Party(entry.getKey(), -net));
+            }
+        }
+
+        List<Transfer> transfers = new ArrayList<>();
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            Party creditor = creditors.poll();
+            Party debtor = debtors.poll();
+            long amount = Math.min(creditor.amount, debtor.amount);
+            transfers.add(new Transfer(debtor.member, creditor.member, amount));
+            creditor.amount -= amount;
+            debtor.amount -= amount;
+            if (creditor.amount > 0)
+                creditors.add(creditor);
+            if (debtor.amount > 0)
+                debtors.add(debtor);
+        }
+        return transfers;
+    }
+
+    // Member with the amount still to receive or pay
+    private static final class Party {
+        final String member;
+        long amount;
+
+        Party(String member, long amount) {
+            this.member = member;
+            this.amount = amount;
+        }
+    }
+
+    /**
+     * One payment: from pays to the given amount in minor units
+     */
+    public record Transfer(String from, String to, long amountMinor) {
+    }
+}
@@ -5,11 +5,13 @@ import androidx.annotation.Nullable;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import java.util.Objects;
 
-@Entity(tableName = "shopping_items")
+// One row per item and person: the unique key index turns duplicate adds into insert conflicts
+@Entity(tableName = "shopping_items", indices = {@Index(value = {"name_key", "added_by_key"}, unique = true)})
 public class ShoppingItem {
 
     @PrimaryKey(autoGenerate = true)
@@ -23,6 +25,16 @@ public class ShoppingItem {
     @ColumnInfo(name = "added_by")
     private String addedBy = "";
 
+    // ItemNames canonical name and key of addedBy, kept in step by the setters; rows read back keep the
+    // stored keys, so a change to the canonical rules never rewrites them behind the unique index
+    @NonNull
+    @ColumnInfo(name = "name_key")
+    private String nameKey = "";
+
+    @NonNull
+    @ColumnInfo(name = "added_by_key")
+    private String addedByKey = "";
+
     @ColumnInfo(name = "quantity")
     private int quantity = 1;
 
@@ -36,14 +48,29 @@ public class ShoppingItem {
     @ColumnInfo(name = "inventory_item_id")
     private String inventoryItemId;
 
+    @Ignore
     public ShoppingItem() {
-        // Required by Room
     }
 
-    @Ignore
-    public ShoppingItem(@NonNull String name, @NonNull String addedBy, int quantity) {
+    // Used by Room, which binds the stored keys instead of deriving them again for every row read
+    public ShoppingItem(long id, @NonNull String name, @NonNull String addedBy, @NonNull String nameKey,
+            @NonNull String addedByKey, int quantity, boolean purchased, long createdAt,
+            @Nullable String inventoryItemId) {
+        this.id = id;
         this.name = name;
         this.addedBy = addedBy;
+        this.nameKey = nameKey;
+        this.addedByKey = addedByKey;
+        this.quantity = quantity;
+        this.purchased = purchased;
+        this.createdAt = createdAt;
+        this.inventoryItemId = inventoryItemId;
+    }
+
+    @Ignore
+    public ShoppingItem(@NonNull String name, @NonNull String addedBy, int quantity) {
+        setName(name);
+        setAddedBy(addedBy);
         this.quantity = Math.max(1, quantity);
         this.createdAt = System.currentTimeMillis();
     }
@@ -63,6 +90,7 @@ public class ShoppingItem {
 
     public void setName(@NonNull String name) {
         this.name = name;
+        this.nameKey = ItemNames.canonical(name);
     }
 
     @NonNull
@@ -72,6 +100,17 @@ public class ShoppingItem {
 
     public void setAddedBy(@NonNull String addedBy) {
         this.addedBy = addedBy;
+        this.addedByKey = ItemNames.key(addedBy);
+    }
+
+    @NonNull
+    public String getNameKey() {
+        return nameKey;
+    }
+
+    @NonNull
+    public String getAddedByKey() {
+        return addedByKey;
     }
 
     public int getQuantity() {
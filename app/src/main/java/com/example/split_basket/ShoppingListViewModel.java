@@ -8,29 +8,75 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 
 import com.example.split_basket.callback.OperationCallback;
+import com.example.split_basket.data.DebouncedSearch;
+import com.example.split_basket.data.ItemFrequency;
 import com.example.split_basket.data.ShoppingListRepository;
 
 import java.util.List;
 
 public class ShoppingListViewModel extends AndroidViewModel {
 
+    // More than fit on one chip line; the activity shows as many as fit
+    private static final int RECOMMENDATION_LIMIT = 12;
+
     private final ShoppingListRepository repository;
     private final LiveData<List<ShoppingItem>> items;
+    private final LiveData<List<ItemFrequency>> frequentItems;
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Null while not searching
+    private final MediatorLiveData<List<ShoppingItem>> searchResults = new MediatorLiveData<>();
+    private final DebouncedSearch<ShoppingItem> search;
+    private boolean searching;
 
     public ShoppingListViewModel(@NonNull Application application) {
         super(application);
         repository = ShoppingListRepository.getInstance(application);
         repository.ensureSeedData();
         items = repository.observeItems();
+        frequentItems = repository.observeFrequentItems(RECOMMENDATION_LIMIT);
+        search = repository.newSearch(searchResults::setValue);
+        // Search results come from their own query; rerun it so list changes show up in them
+        searchResults.addSource(items, list -> {
+            if (searching) {
+                search.refresh();
+            }
+        });
     }
 
     public LiveData<List<ShoppingItem>> getItems() {
         return items;
     }
 
+    /**
+     * Items matching the search text, or null when no search is active
+     */
+    public LiveData<List<ShoppingItem>> getSearchResults() {
+        return searchResults;
+    }
+
+    /**
+     * Search items by word prefix of name or adder. Call on every keystroke; empty text ends the search.
+     */
+    public void setSearchQuery(@Nullable String text) {
+        searching = text != null && !text.trim().isEmpty();
+        if (searching) {
+            search.setQuery(text);
+        } else {
+            search.cancel();
+            searchResults.setValue(null);
+        }
+    }
+
+    /**
+     * Most used item names from the persisted frequency index, for the recommendation chips
+     */
+    public LiveData<List<ItemFrequency>> getFrequentItems() {
+        return frequentItems;
+    }
+
     public void addItem(@NonNull String name, int quantity, @NonNull String addedBy) {
         addItem(name, quantity, addedBy, null);
     }
@@ -41,6 +87,10 @@ public class ShoppingListViewModel extends AndroidViewModel {
         repository.addItem(item, wrapCallback(callback));
     }
 
+    public void addItems(@NonNull List<ShoppingItem> items, @Nullable OperationCallback callback) {
+        repository.addItems(items, wrapCallback(callback));
+    }
+
     public void setPurchased(@NonNull ShoppingItem item, boolean purchased) {
         item.setPurchased(purchased);
         repository.updateItem(item);
@@ -89,4 +139,9 @@ public class ShoppingListViewModel extends AndroidViewModel {
         if (callback == null) return null;
         return (success, message) -> mainHandler.post(() -> callback.onComplete(success, message));
     }
+
+    @Override
+    protected void onCleared() {
+        search.cancel();
+    }
 }
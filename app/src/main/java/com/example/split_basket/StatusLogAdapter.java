@@ -1,6 +1,8 @@
 package com.example.split_basket;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -9,17 +11,23 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.List;
+
 public class StatusLogAdapter extends ListAdapter<EventLogManager.LogEntry, StatusLogAdapter.LogViewHolder> {
 
+    // Relative times only change per minute
+    private static final long TICK_MILLIS = 60 * 1000;
+    // Payload for rebinding just the relative time
+    private static final Object PAYLOAD_TIME = new Object();
+
     private static final DiffUtil.ItemCallback<EventLogManager.LogEntry> DIFF_CALLBACK = new DiffUtil.ItemCallback<EventLogManager.LogEntry>() {
         @Override
         public boolean areItemsTheSame(@NonNull EventLogManager.LogEntry oldItem, @NonNull EventLogManager.LogEntry newItem) {
-            return oldItem.timestamp() == newItem.timestamp()
-                    && oldItem.actionType().equals(newItem.actionType())
-                    && oldItem.getItemName().equals(newItem.getItemName());
+            return oldItem.id() == newItem.id();
         }
 
         @Override
@@ -29,12 +37,56 @@ public class StatusLogAdapter extends ListAdapter<EventLogManager.LogEntry, Stat
         }
     };
     private final Context context;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private RecyclerView recyclerView;
+    // One clock for all rows, advanced by the tick
+    private long now = System.currentTimeMillis();
+    private final Runnable tick = new Runnable() {
+        @Override
+        public void run() {
+            now = System.currentTimeMillis();
+            refreshVisibleTimes();
+            handler.postDelayed(this, TICK_MILLIS);
+        }
+    };
 
     public StatusLogAdapter(@NonNull Context context) {
         super(DIFF_CALLBACK);
         this.context = context;
     }
 
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        this.recyclerView = recyclerView;
+        handler.postDelayed(tick, TICK_MILLIS);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        handler.removeCallbacks(tick);
+        this.recyclerView = null;
+    }
+
+    @Override
+    public void submitList(@Nullable List<EventLogManager.LogEntry> list) {
+        now = System.currentTimeMillis();
+        super.submitList(list);
+    }
+
+    // Rebind only the time text of rows on screen
+    private void refreshVisibleTimes() {
+        if (recyclerView == null || !(recyclerView.getLayoutManager() instanceof LinearLayoutManager))
+            return;
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION || last < first)
+            return;
+        notifyItemRangeChanged(first, last - first + 1, PAYLOAD_TIME);
+    }
+
     @Nullable
     public EventLogManager.LogEntry getItemAt(int position) {
         if (position < 0 || position >= getItemCount()) return null;
@@ -55,6 +107,15 @@ public class StatusLogAdapter extends ListAdapter<EventLogManager.LogEntry, Stat
         holder.bind(logEntry);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull LogViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        holder.bindTime(getItem(position));
+    }
+
     class LogViewHolder extends RecyclerView.ViewHolder {
         private final TextView textLogContent;
         private final TextView textLogTime;
@@ -68,9 +129,11 @@ public class StatusLogAdapter extends ListAdapter<EventLogManager.LogEntry, Stat
         void bind(EventLogManager.LogEntry logEntry) {
             // Use LogEntry's description directly
             textLogContent.setText(logEntry.description());
-            // Format time
-            String formattedTime = EventLogManager.formatTimeAgo(logEntry.timestamp());
-            textLogTime.setText(formattedTime);
+            bindTime(logEntry);
+        }
+
+        void bindTime(EventLogManager.LogEntry logEntry) {
+            textLogTime.setText(EventLogManager.formatTimeAgo(logEntry.timestamp(), now));
         }
     }
 }
\ No newline at end of file
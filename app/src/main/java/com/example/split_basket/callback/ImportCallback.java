@@ -0,0 +1,23 @@
+package com.example.split_basket.callback;
+
+/**
+ * Callback interface for batch imports.
+ * Both methods are called on the main thread.
+ */
+public interface ImportCallback {
+    /**
+     * Called as rows are written
+     *
+     * @param done  rows written so far
+     * @param total rows to write
+     */
+    void onProgress(int done, int total);
+
+    /**
+     * Called once the import has committed or failed
+     *
+     * @param success  true if the import committed
+     * @param imported number of source items imported
+     */
+    void onComplete(boolean success, int imported);
+}
@@ -0,0 +1,16 @@
+package com.example.split_basket.callback;
+
+/**
+ * Callback interface for async queries.
+ * Results are always delivered on the main thread.
+ *
+ * @param <T> type of the query result
+ */
+public interface QueryCallback<T> {
+    /**
+     * Called when a query completes
+     *
+     * @param result query result, never null for list queries
+     */
+    void onResult(T result);
+}
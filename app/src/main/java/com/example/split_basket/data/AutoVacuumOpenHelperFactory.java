@@ -0,0 +1,69 @@
+package com.example.split_basket.data;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+
+/**
+ * Framework open helper that creates new database files in incremental auto_vacuum mode.
+ * <p>
+ * The mode can only be chosen while the file has no tables, and Room's own onCreate callback runs after it
+ * has created them, so the pragma goes in onConfigure, which runs before. On an existing file the pragma
+ * is a no-op. {@link LogRetentionManager} releases the freed pages a few at a time.
+ */
+class AutoVacuumOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
+
+    private final SupportSQLiteOpenHelper.Factory delegate = new FrameworkSQLiteOpenHelperFactory();
+
+    @NonNull
+    @Override
+    public SupportSQLiteOpenHelper create(@NonNull SupportSQLiteOpenHelper.Configuration configuration) {
+        return delegate.create(SupportSQLiteOpenHelper.Configuration.builder(configuration.context)
+                .name(configuration.name)
+                .callback(new AutoVacuumCallback(configuration.callback))
+                .noBackupDirectory(configuration.useNoBackupDirectory)
+                .allowDataLossOnRecovery(configuration.allowDataLossOnRecovery)
+                .build());
+    }
+
+    private static final class AutoVacuumCallback extends SupportSQLiteOpenHelper.Callback {
+        private final SupportSQLiteOpenHelper.Callback delegate;
+
+        AutoVacuumCallback(SupportSQLiteOpenHelper.Callback delegate) {
+            super(delegate.version);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onConfigure(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+            delegate.onConfigure(db);
+        }
+
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            delegate.onCreate(db);
+        }
+
+        @Override
+        public void onUpgrade(@NonNull SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+            delegate.onUpgrade(db, oldVersion, newVersion);
+        }
+
+        @Override
+        public void onDowngrade(@NonNull SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+            delegate.onDowngrade(db, oldVersion, newVersion);
+        }
+
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            delegate.onOpen(db);
+        }
+
+        @Override
+        public void onCorruption(@NonNull SupportSQLiteDatabase db) {
+            delegate.onCorruption(db);
+        }
+    }
+}
@@ -6,9 +6,13 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.example.split_basket.BillItem;
+import com.example.split_basket.BillLineConsumer;
+import com.example.split_basket.BillLineItem;
+import com.example.split_basket.BillParticipant;
 
 import java.util.List;
 
@@ -20,6 +24,19 @@ public interface BillDao {
     @Query("SELECT * FROM bills")
     LiveData<List<BillItem>> observeBills();
 
+    // Unpaid bills first, then paid bills, each in insertion order: 'Unpaid' sorts after 'Paid', so this is
+    // status DESC, rowid, which is the order of the descending status index, and SQLite needs no sort step
+    @Query("SELECT * FROM bills WHERE status IN ('Unpaid', 'Paid') ORDER BY status DESC, rowid")
+    LiveData<List<BillItem>> observeBillsByStatus();
+
+    // Bills whose name or any participant matches an FTS expression, in observeBillsByStatus() order
+    @Query("SELECT * FROM bills WHERE status IN ('Unpaid', 'Paid') "
+            + "AND (rowid IN (SELECT rowid FROM bills_fts WHERE bills_fts MATCH :match) "
+            + "OR id IN (SELECT bill_participants.billId FROM bill_participants JOIN bill_participants_fts "
+            + "ON bill_participants.rowid = bill_participants_fts.rowid WHERE bill_participants_fts MATCH :match)) "
+            + "ORDER BY status DESC, rowid LIMIT :limit")
+    List<BillItem> search(String match, int limit);
+
     @Query("SELECT * FROM bills WHERE status = 'Unpaid'")
     List<BillItem> getUnpaidBills();
 
@@ -49,4 +66,95 @@ public interface BillDao {
 
     @Query("SELECT COUNT(*) FROM bills")
     int countBills();
+
+    // Bills with their participant rows
+
+    @Transaction
+    @Query("SELECT * FROM bills")
+    List<BillWithParticipants> getAllBillsWithParticipants();
+
+    @Transaction
+    @Query("SELECT * FROM bills WHERE status = :status")
+    List<BillWithParticipants> getBillsWithParticipants(String status);
+
+    @Transaction
+    @Query("SELECT * FROM bills WHERE id = :billId")
+    BillWithParticipants getBillWithParticipants(String billId);
+
+    @Query("SELECT bills.* FROM bills JOIN bill_participants ON bills.id = bill_participants.billId "
+            + "WHERE bill_participants.participant = :participant")
+    List<BillItem> getBillsForParticipant(String participant);
+
+    @Query("SELECT participant, SUM(shareMinor) AS owedMinor, COUNT(*) AS billCount FROM bill_participants "
+            + "WHERE paid = 0 GROUP BY participant ORDER BY participant")
+    List<ParticipantBalance> getOutstandingBalances();
+
+    @Query("SELECT currency, COALESCE(SUM(amountMinor), 0) AS totalMinor FROM bills WHERE status = :status "
+            + "GROUP BY currency")
+    List<CurrencyTotal> getTotalsByCurrency(String status);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertParticipants(List<BillParticipant> participants);
+
+    @Query("DELETE FROM bill_participants WHERE billId = :billId")
+    void deleteParticipants(String billId);
+
+    // Member balance ledger
+
+    @Query("SELECT * FROM member_balances WHERE netMinor != 0")
+    List<MemberBalance> getNonZeroBalances();
+
+    @Query("SELECT COUNT(*) FROM member_balances")
+    int countBalances();
+
+    @Query("UPDATE member_balances SET netMinor = netMinor + :deltaMinor WHERE member = :member AND currency = :currency")
+    int addToBalance(String member, String currency, long deltaMinor);
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertBalance(MemberBalance balance);
+
+    @Query("DELETE FROM member_balances")
+    void clearBalances();
+
+    default void adjustBalance(String member, String currency, long deltaMinor) {
+        if (addToBalance(member, currency, deltaMinor) == 0) {
+            insertBalance(new MemberBalance(member, currency, deltaMinor));
+        }
+    }
+
+    @Transaction
+    default void insertWithParticipants(BillItem bill, List<BillParticipant> participants) {
+        insert(bill);
+        deleteParticipants(bill.getId());
+        insertParticipants(participants);
+    }
+
+    // Itemised bills
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertLineItems(List<BillLineItem> lines);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertLineConsumers(List<BillLineConsumer> consumers);
+
+    @Query("SELECT * FROM bill_line_items WHERE billId = :billId ORDER BY position")
+    List<BillLineItem> getLineItems(String billId);
+
+    @Query("SELECT * FROM bill_line_consumers WHERE billId = :billId ORDER BY position")
+    List<BillLineConsumer> getLineConsumers(String billId);
+
+    @Transaction
+    default void insertItemised(BillItem bill, List<BillParticipant> participants, List<BillLineItem> lines,
+                                List<BillLineConsumer> consumers) {
+        insertWithParticipants(bill, participants);
+        insertLineItems(lines);
+        insertLineConsumers(consumers);
+    }
+
+    @Transaction
+    default void updateWithParticipants(BillItem bill, List<BillParticipant> participants) {
+        update(bill);
+        deleteParticipants(bill.getId());
+        insertParticipants(participants);
+    }
 }
@@ -0,0 +1,16 @@
+package com.example.split_basket.data;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+import com.example.split_basket.BillItem;
+
+/**
+ * Full-text index over bill names, kept in step with bills
+ */
+@Fts4(contentEntity = BillItem.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61, prefix = {2, 3})
+@Entity(tableName = "bills_fts")
+public class BillFts {
+    public String name;
+}
@@ -0,0 +1,16 @@
+package com.example.split_basket.data;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+import com.example.split_basket.BillParticipant;
+
+/**
+ * Full-text index over bill participant names, kept in step with bill_participants
+ */
+@Fts4(contentEntity = BillParticipant.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61, prefix = {2, 3})
+@Entity(tableName = "bill_participants_fts")
+public class BillParticipantFts {
+    public String participant;
+}
@@ -4,16 +4,31 @@ import android.content.Context;
 import android.content.SharedPreferences;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 
 import com.example.split_basket.BillItem;
+import com.example.split_basket.BillLineConsumer;
+import com.example.split_basket.BillLineItem;
+import com.example.split_basket.BillParticipant;
 import com.example.split_basket.EventLogManager;
+import com.example.split_basket.Money;
+import com.example.split_basket.R;
+import com.example.split_basket.SettlementEngine;
+import com.example.split_basket.ShoppingItem;
+import com.example.split_basket.callback.OperationCallback;
+import com.example.split_basket.callback.QueryCallback;
+import com.example.split_basket.split.SplitStrategies;
 
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
 
 public class BillRepository {
 
@@ -21,27 +36,30 @@ public class BillRepository {
     private static final String KEY_FIRST_LAUNCH = "first_launch";
 
     private static volatile BillRepository INSTANCE;
+    private final SplitBasketDatabase database;
     private final BillDao billDao;
-    private final ExecutorService executorService = Executors.newFixedThreadPool(2);
+    private final ShoppingListDao shoppingListDao;
+    private final DatabaseScheduler scheduler;
     private final Context appContext;
     private final EventLogManager eventLogManager;
     private final SharedPreferences preferences;
     private volatile boolean seeded = false;
 
-    private BillRepository(@NonNull Context context) {
+    private BillRepository(@NonNull Context context, @NonNull DatabaseScheduler scheduler) {
         appContext = context.getApplicationContext();
-        SplitBasketDatabase database = SplitBasketDatabase.getInstance(appContext);
+        database = SplitBasketDatabase.getInstance(appContext);
         billDao = database.billDao();
+        shoppingListDao = database.shoppingListDao();
         eventLogManager = EventLogManager.getInstance(appContext);
         preferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+        this.scheduler = scheduler;
     }
 
     public static BillRepository getInstance(@NonNull Context context) {
         if (INSTANCE == null) {
             synchronized (BillRepository.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = new BillRepository(context.getApplicationContext());
+                    INSTANCE = new BillRepository(context.getApplicationContext(), DatabaseScheduler.getInstance());
                 }
             }
         }
@@ -51,7 +69,7 @@ public class BillRepository {
     public void ensureSeedData() {
         if (seeded)
             return;
-        executorService.execute(() -> {
+        scheduler.write(() -> {
             // Initialize default bill data on first launch
             if (preferences.getBoolean(KEY_FIRST_LAUNCH, true)) {
                 initializeDefaultBills();
@@ -62,6 +80,10 @@ public class BillRepository {
                     initializeDefaultBills();
                 }
             }
+            // Ledger is empty after a fresh install or a schema reset: build it once from the bills
+            if (billDao.countBalances() == 0) {
+                rebuildLedger();
+            }
             seeded = true;
         });
     }
@@ -72,8 +94,8 @@ public class BillRepository {
             List<BillItem> defaultBills = new ArrayList<>();
 
             // Add default unpaid bill
-            BillItem unpaidBill = new BillItem("unpaid_bill_1", "Weekend Party", "$ 389.50", "Unpaid", "Equal Split",
-                    "2024-01-01");
+            BillItem unpaidBill = new BillItem("unpaid_bill_1", "Weekend Party", 38950, Money.DEFAULT_CURRENCY,
+                    "Unpaid", "Equal Split", "2024-01-01");
             unpaidBill.addParticipant("User1");
             unpaidBill.addParticipant("User2");
             unpaidBill.addParticipant("User3");
@@ -81,21 +103,24 @@ public class BillRepository {
             defaultBills.add(unpaidBill);
 
             // Add default paid bill
-            BillItem paidBill1 = new BillItem("paid_bill_1", "Daily Shopping", "$ 128.30", "Paid", "By Quantity",
-                    "2024-01-02");
+            BillItem paidBill1 = new BillItem("paid_bill_1", "Daily Shopping", 12830, Money.DEFAULT_CURRENCY,
+                    "Paid", "By Quantity", "2024-01-02");
             paidBill1.addParticipant("User1");
             paidBill1.addParticipant("User2");
             paidBill1.addParticipant("User3");
             paidBill1.addParticipant("User4");
             defaultBills.add(paidBill1);
 
-            BillItem paidBill2 = new BillItem("paid_bill_2", "Dinner", "$ 456.80", "Paid", "Custom", "2024-01-03");
+            BillItem paidBill2 = new BillItem("paid_bill_2", "Dinner", 45680, Money.DEFAULT_CURRENCY,
+                    "Paid", "Custom", "2024-01-03");
             paidBill2.addParticipant("User1");
             paidBill2.addParticipant("User2");
             paidBill2.addParticipant("User3");
             defaultBills.add(paidBill2);
 
-            billDao.insertAll(defaultBills);
+            for (BillItem bill : defaultBills) {
+                billDao.insertWithParticipants(bill, toParticipantRows(bill));
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -105,57 +130,160 @@ public class BillRepository {
         return billDao.observeBills();
     }
 
-    public List<BillItem> getAllBills() {
-        List<BillItem> result = null;
-        try {
-            result = executorService.submit(billDao::getAllBills).get();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return result != null ? result : java.util.Collections.emptyList();
+    /**
+     * Observe bills already ordered for display: unpaid first, then paid
+     */
+    public LiveData<List<BillItem>> observeBillsByStatus() {
+        return billDao.observeBillsByStatus();
     }
 
-    public List<BillItem> getUnpaidBills() {
-        List<BillItem> result = null;
-        try {
-            result = executorService.submit(billDao::getUnpaidBills).get();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return result != null ? result : java.util.Collections.emptyList();
+    /**
+     * Search-as-you-type over bill names and participants, by word prefix.
+     * Results are in {@link #observeBillsByStatus()} order.
+     */
+    public DebouncedSearch<BillItem> newSearch(@NonNull QueryCallback<List<BillItem>> callback) {
+        return new DebouncedSearch<>(match -> billDao.search(match, DebouncedSearch.RESULT_LIMIT), callback);
     }
 
-    public List<BillItem> getPaidBills() {
-        List<BillItem> result = null;
-        try {
-            result = executorService.submit(billDao::getPaidBills).get();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return result != null ? result : java.util.Collections.emptyList();
+    public void getAllBills(@NonNull QueryCallback<List<BillItem>> callback) {
+        scheduler.query(() -> BillWithParticipants.toBillItems(billDao.getAllBillsWithParticipants()),
+                Collections.emptyList(), callback);
     }
 
-    public BillItem getBillById(String billId) {
-        BillItem result = null;
-        try {
-            result = executorService.submit(() -> billDao.getBillById(billId)).get();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return result;
+    public void getUnpaidBills(@NonNull QueryCallback<List<BillItem>> callback) {
+        scheduler.query(() -> BillWithParticipants.toBillItems(billDao.getBillsWithParticipants("Unpaid")),
+                Collections.emptyList(), callback);
+    }
+
+    public void getPaidBills(@NonNull QueryCallback<List<BillItem>> callback) {
+        scheduler.query(() -> BillWithParticipants.toBillItems(billDao.getBillsWithParticipants("Paid")),
+                Collections.emptyList(), callback);
+    }
+
+    public void getBillById(String billId, @NonNull QueryCallback<BillItem> callback) {
+        scheduler.query(() -> {
+            BillWithParticipants row = billDao.getBillWithParticipants(billId);
+            return row != null ? row.toBillItem() : null;
+        }, null, callback);
+    }
+
+    /**
+     * Bills the given participant takes part in (participant rows are not loaded)
+     */
+    public void getBillsForParticipant(String participant, @NonNull QueryCallback<List<BillItem>> callback) {
+        scheduler.query(() -> billDao.getBillsForParticipant(participant), Collections.emptyList(), callback);
+    }
+
+    /**
+     * What each participant still owes across unpaid bills, summed by SQLite
+     */
+    public void getOutstandingBalances(@NonNull QueryCallback<List<ParticipantBalance>> callback) {
+        scheduler.query(billDao::getOutstandingBalances, Collections.emptyList(), callback);
+    }
+
+    /**
+     * Bill totals with the given status, one entry per currency, summed by SQLite
+     */
+    public void getTotals(String status, @NonNull QueryCallback<List<Money>> callback) {
+        scheduler.query(() -> {
+            List<Money> totals = new ArrayList<>();
+            for (CurrencyTotal total : billDao.getTotalsByCurrency(status)) {
+                totals.add(Money.of(total.totalMinor, total.currency));
+            }
+            return totals;
+        }, Collections.emptyList(), callback);
+    }
+
+    /**
+     * Transfers that settle all unpaid bills, per currency, computed from the balance ledger
+     */
+    public void getSettlement(@NonNull QueryCallback<Map<String, List<SettlementEngine.Transfer>>> callback) {
+        scheduler.query(() -> {
+            Map<String, Map<String, Long>> byCurrency = new LinkedHashMap<>();
+            for (MemberBalance balance : billDao.getNonZeroBalances()) {
+                Map<String, Long> balances = byCurrency.get(balance.currency);
+                if (balances == null) {
+                    balances = new LinkedHashMap<>();
+                    byCurrency.put(balance.currency, balances);
+                }
+                balances.put(balance.member, balance.netMinor);
+            }
+            Map<String, List<SettlementEngine.Transfer>> settlement = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, Long>> entry : byCurrency.entrySet()) {
+                settlement.put(entry.getKey(), SettlementEngine.settle(entry.getValue()));
+            }
+            return settlement;
+        }, Collections.emptyMap(), callback);
     }
 
     public void addBill(@NonNull BillItem bill) {
-        executorService.execute(() -> {
-            billDao.insert(bill);
+        scheduler.write(() -> {
+            List<BillParticipant> rows = toParticipantRows(bill);
+            database.runInTransaction(() -> {
+                billDao.insertWithParticipants(bill, rows);
+                applyToLedger(bill, rows, 1);
+            });
             // Add log record
             eventLogManager.addLog(EventLogManager.EVENT_TYPE_BILL_ADD, bill.getName() + " - " + bill.getAmount(), "");
         });
     }
 
+    /**
+     * Create one itemised bill for the given shopping items and mark them purchased, all in a single
+     * transaction. The total is spread over the lines by quantity and each line is charged to whoever
+     * added the item.
+     */
+    public void createBillFromShoppingItems(@NonNull String name, @NonNull Money total,
+                                            @NonNull List<ShoppingItem> items,
+                                            @Nullable OperationCallback callback) {
+        scheduler.write(() -> {
+            try {
+                String billId = UUID.randomUUID().toString();
+                String creationDate = new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date());
+                BillItem bill = new BillItem(billId, name, total.getMinor(), total.getCurrency(), "Unpaid",
+                        SplitStrategies.METHOD_BY_ITEM, creationDate);
+                List<BillLineItem> lines = toLineItems(billId, items, total.getMinor(),
+                        appContext.getString(R.string.default_added_by));
+                List<BillLineConsumer> consumers = new ArrayList<>();
+                List<BillParticipant> rows = toParticipantRows(billId, lines, consumers);
+                List<Long> ids = new ArrayList<>(items.size());
+                for (ShoppingItem item : items) {
+                    ids.add(item.getId());
+                }
+                database.runInTransaction(() -> {
+                    billDao.insertItemised(bill, rows, lines, consumers);
+                    applyToLedger(bill, rows, 1);
+                    shoppingListDao.markPurchasedByIds(ids);
+                    // Count the purchases for recommendations
+                    database.itemFrequencyDao().recordUses(ShoppingListRepository.namesOf(items),
+                            System.currentTimeMillis());
+                });
+                // Add log records
+                eventLogManager.addLog(EventLogManager.EVENT_TYPE_BILL_ADD, name + " - " + bill.getAmount(), "");
+                for (ShoppingItem item : items) {
+                    eventLogManager.addLog(EventLogManager.EVENT_TYPE_SHOPPING_LIST_PURCHASE, item.getName(),
+                            item.getQuantity(), "");
+                }
+                notifyCallback(callback, true, appContext.getString(R.string.bill_from_items_created, name, items.size()));
+            } catch (Exception e) {
+                e.printStackTrace();
+                notifyCallback(callback, false, appContext.getString(R.string.error_bill_from_items));
+            }
+        });
+    }
+
     public void updateBill(@NonNull BillItem updatedBill) {
-        executorService.execute(() -> {
-            billDao.update(updatedBill);
+        scheduler.write(() -> {
+            List<BillParticipant> rows = toParticipantRows(updatedBill);
+            database.runInTransaction(() -> {
+                // Take the old version out of the ledger and put the new one in
+                BillWithParticipants previous = billDao.getBillWithParticipants(updatedBill.getId());
+                if (previous != null) {
+                    applyToLedger(previous.bill, previous.participants, -1);
+                }
+                billDao.updateWithParticipants(updatedBill, rows);
+                applyToLedger(updatedBill, rows, 1);
+            });
             // Add log record
             eventLogManager.addLog(EventLogManager.EVENT_TYPE_BILL_UPDATE,
                     updatedBill.getName() + " - " + updatedBill.getAmount(), "");
@@ -163,33 +291,142 @@ public class BillRepository {
     }
 
     public void deleteBill(String billId) {
-        executorService.execute(() -> {
+        scheduler.write(() -> {
             // First record the information of the bill to be deleted
-            BillItem deletedBill = billDao.getBillById(billId);
-            if (deletedBill != null) {
-                billDao.deleteById(billId);
+            BillWithParticipants deleted = billDao.getBillWithParticipants(billId);
+            if (deleted != null) {
+                database.runInTransaction(() -> {
+                    billDao.deleteById(billId);
+                    applyToLedger(deleted.bill, deleted.participants, -1);
+                });
                 // Record deletion log
                 eventLogManager.addLog(EventLogManager.EVENT_TYPE_BILL_REMOVE,
-                        deletedBill.getName() + " - " + deletedBill.getAmount(), "");
+                        deleted.bill.getName() + " - " + deleted.bill.getAmount(), "");
             }
         });
     }
 
     public void clearAllBills() {
-        executorService.execute(() -> {
-            billDao.clearAll();
+        scheduler.write(() -> {
+            database.runInTransaction(() -> {
+                billDao.clearAll();
+                billDao.clearBalances();
+            });
         });
     }
 
-    private void shutdown() {
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(3, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
+    // Recompute the whole ledger from the unpaid bills; only needed when the ledger is missing
+    private void rebuildLedger() {
+        database.runInTransaction(() -> {
+            billDao.clearBalances();
+            for (BillWithParticipants unpaid : billDao.getBillsWithParticipants("Unpaid")) {
+                applyToLedger(unpaid.bill, unpaid.participants, 1);
+            }
+        });
+    }
+
+    /**
+     * Add (sign 1) or remove (sign -1) one bill's effect on the member balances.
+     * Only unpaid bills count: every participant owes their share to the payer, who is the
+     * first participant when the bill has none set.
+     */
+    private void applyToLedger(@NonNull BillItem bill, @NonNull List<BillParticipant> rows, int sign) {
+        if (!"Unpaid".equals(bill.getStatus()) || rows.isEmpty())
+            return;
+        String payer = bill.getPayer();
+        if (payer == null) {
+            BillParticipant first = rows.get(0);
+            for (BillParticipant row : rows) {
+                if (row.position < first.position)
+                    first = row;
+            }
+            payer = first.participant;
+        }
+        for (BillParticipant row : rows) {
+            if (row.paid || row.participant.equals(payer))
+                continue;
+            long delta = sign * row.shareMinor;
+            billDao.adjustBalance(row.participant, bill.getCurrency(), -delta);
+            billDao.adjustBalance(payer, bill.getCurrency(), delta);
+        }
+    }
+
+    // Participant rows for a bill: the stored shares for fixed-share methods, otherwise an exact equal split of the total
+    static List<BillParticipant> toParticipantRows(@NonNull BillItem bill) {
+        List<String> participants = bill.getParticipants();
+        List<Long> customAmounts = bill.getCustomAmounts();
+        List<BillParticipant> rows = new ArrayList<>(participants.size());
+        if (participants.isEmpty())
+            return rows;
+        boolean paid = "Paid".equals(bill.getStatus());
+        boolean custom = SplitStrategies.hasFixedShares(bill.getMethod())
+                && customAmounts.size() == participants.size();
+        long[] equalShares = bill.getEqualShares();
+        for (int i = 0; i < participants.size(); i++) {
+            long share = custom ? customAmounts.get(i) : equalShares[i];
+            rows.add(new BillParticipant(bill.getId(), participants.get(i), i, share, paid));
+        }
+        return rows;
+    }
+
+    // Bill lines for shopping items; the total is shared out by quantity, exact to the cent
+    static List<BillLineItem> toLineItems(@NonNull String billId, @NonNull List<ShoppingItem> items,
+                                          long totalMinor, @NonNull String defaultConsumer) {
+        int count = items.size();
+        List<BillLineItem> lines = new ArrayList<>(count);
+        if (count == 0)
+            return lines;
+        long[] quantities = new long[count];
+        for (int i = 0; i < count; i++) {
+            quantities[i] = Math.max(1, items.get(i).getQuantity());
+        }
+        long[] prices = new long[count];
+        SplitStrategies.SHARES.split(totalMinor, quantities, count, prices);
+        for (int i = 0; i < count; i++) {
+            ShoppingItem item = items.get(i);
+            BillLineItem line = new BillLineItem(billId, i, item.getName(), (int) quantities[i], prices[i],
+                    item.getId(), item.getInventoryItemId());
+            String consumer = item.getAddedBy().trim();
+            line.consumers.add(consumer.isEmpty() ? defaultConsumer : consumer);
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    /**
+     * Participant rows for an itemised bill: each line's price is split equally between its consumers.
+     * The consumer rows for the lines are added to consumersOut.
+     */
+    static List<BillParticipant> toParticipantRows(@NonNull String billId, @NonNull List<BillLineItem> lines,
+                                                   @NonNull List<BillLineConsumer> consumersOut) {
+        Map<String, BillParticipant> byParticipant = new LinkedHashMap<>();
+        long[] shares = new long[4];
+        for (BillLineItem line : lines) {
+            int count = line.consumers.size();
+            if (count == 0)
+                continue;
+            if (shares.length < count) {
+                shares = new long[count];
+            }
+            SplitStrategies.EQUAL.split(line.priceMinor, null, count, shares);
+            for (int i = 0; i < count; i++) {
+                String consumer = line.consumers.get(i);
+                consumersOut.add(new BillLineConsumer(billId, line.position, consumer));
+                BillParticipant row = byParticipant.get(consumer);
+                if (row == null) {
+                    row = new BillParticipant(billId, consumer, byParticipant.size(), 0, false);
+                    byParticipant.put(consumer, row);
+                }
+                row.shareMinor += shares[i];
             }
-        } catch (InterruptedException e) {
-            executorService.shutdownNow();
-            Thread.currentThread().interrupt();
+        }
+        return new ArrayList<>(byParticipant.values());
+    }
+
+    // Callbacks are delivered on the main thread
+    private void notifyCallback(@Nullable OperationCallback callback, boolean success, @NonNull String message) {
+        if (callback != null) {
+            scheduler.postToMain(() -> callback.onComplete(success, message));
         }
     }
 }
@@ -0,0 +1,52 @@
+package com.example.split_basket.data;
+
+import androidx.room.Embedded;
+import androidx.room.Relation;
+
+import com.example.split_basket.BillItem;
+import com.example.split_basket.BillParticipant;
+import com.example.split_basket.split.SplitStrategies;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A bill loaded together with its participant rows
+ */
+public class BillWithParticipants {
+    @Embedded
+    public BillItem bill;
+
+    @Relation(parentColumn = "id", entityColumn = "billId")
+    public List<BillParticipant> participants;
+
+    /**
+     * Copy the participant rows onto the bill, in participant order.
+     * Shares are only copied to the custom amounts for methods with fixed shares (anything but equal).
+     */
+    public BillItem toBillItem() {
+        List<BillParticipant> rows = new ArrayList<>(participants);
+        Collections.sort(rows, (a, b) -> Integer.compare(a.position, b.position));
+        List<String> names = new ArrayList<>(rows.size());
+        List<Long> customAmounts = new ArrayList<>();
+        boolean custom = SplitStrategies.hasFixedShares(bill.getMethod());
+        for (BillParticipant row : rows) {
+            names.add(row.participant);
+            if (custom) {
+                customAmounts.add(row.shareMinor);
+            }
+        }
+        bill.setParticipants(names);
+        bill.setCustomAmounts(customAmounts);
+        return bill;
+    }
+
+    static List<BillItem> toBillItems(List<BillWithParticipants> rows) {
+        List<BillItem> bills = new ArrayList<>(rows.size());
+        for (BillWithParticipants row : rows) {
+            bills.add(row.toBillItem());
+        }
+        return bills;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.split_basket.data;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Burkhard-Keller tree over words with Levenshtein distance. A lookup within distance d only descends
+ * into children whose edge distance is within d of the node's distance (triangle inequality), so it
+ * visits a small part of the vocabulary instead of all of it.
+ */
+final class BkTree {
+
+    private Node root;
+
+    /**
+     * @return false if the word was already present
+     */
+    boolean add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            return true;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(word, node.word);
+            if (distance == 0)
+                return false;
+            Node child = node.child(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(word));
+                return true;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Words within maxDistance of the word, nearest first
+     */
+    List<String> search(String word, int maxDistance) {
+        if (root == null)
+            return Collections.emptyList();
+        List<Match> matches = new ArrayList<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = distance(word, node.word);
+            if (distance <= maxDistance) {
+                matches.add(new Match(node.word, distance));
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                if (Math.abs(node.childDistances[i] - distance) <= maxDistance) {
+                    pending.push(node.children[i]);
+                }
+            }
+        }
+        Collections.sort(matches, (a, b) -> Integer.compare(a.distance, b.distance));
+        List<String> words = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            words.add(match.word);
+        }
+        return words;
+    }
+
+    // Levenshtein distance with two rolling rows
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitute = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitute, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class Match {
+        final String word;
+        final int distance;
+
+        Match(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+    }
+
+    // Children in parallel arrays keyed by edge distance; nodes have few children, so a scan beats a map
+    private static final class Node {
+        final String word;
+        int[] childDistances = new int[2];
+        Node[] children = new Node[2];
+        int childCount;
+
+        Node(String word) {
+            this.word = word;
+        }
+
+        Node child(int distance) {
+            for (int i = 0; i < childCount; i++) {
+                if (childDistances[i] == distance)
+                    return children[i];
+            }
+            return null;
+        }
+
+        void addChild(int distance, Node child) {
+            if (childCount == children.length) {
+                childDistances = Arrays.copyOf(childDistances, childCount * 2);
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            childDistances[childCount] = distance;
+            children[childCount] = child;
+            childCount++;
+        }
+    }
+}
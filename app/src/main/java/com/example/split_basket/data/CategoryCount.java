@@ -0,0 +1,10 @@
+package com.example.split_basket.data;
+
+/**
+ * Per-category row of {@link InventoryDao#getCategoryCounts()}
+ */
+public class CategoryCount {
+    public String category;
+    public int itemCount;
+    public int totalQuantity;
+}
@@ -0,0 +1,16 @@
+package com.example.split_basket.data;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of {@link InventoryRepository#consume}
+ */
+public class ConsumeResult {
+    public int consumed; // Units taken; less than asked for when stock ran out
+    public final List<String> emptiedLotIds = new ArrayList<>(); // Lots used up and deleted
+    @Nullable
+    public Long nextExpiry; // Expiry of the earliest remaining lot, null when none has one
+}
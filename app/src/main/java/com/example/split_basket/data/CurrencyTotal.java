@@ -0,0 +1,9 @@
+package com.example.split_basket.data;
+
+/**
+ * Row of {@link BillDao#getTotalsByCurrency(String)}
+ */
+public class CurrencyTotal {
+    public String currency;
+    public long totalMinor;
+}
@@ -0,0 +1,288 @@
+package com.example.split_basket.data;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.split_basket.BillItem;
+import com.example.split_basket.BillParticipant;
+import com.example.split_basket.EventLogManager;
+import com.example.split_basket.InventoryItem;
+import com.example.split_basket.ItemNames;
+import com.example.split_basket.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Schema migrations for {@link SplitBasketDatabase}.
+ * <p>
+ * Version 4 is the last released schema; the versions in between were never shipped and fall back to a
+ * destructive migration. The tables are created with the statements Room generates for the entities, so
+ * keep them in step when an entity changes.
+ */
+final class DatabaseMigrations {
+
+    private DatabaseMigrations() {
+    }
+
+    /**
+     * Version 4 to 21: bills move from a display amount string and comma-separated participant and custom
+     * amount columns to minor units plus bill_participants rows; inventory, shopping and log rows gain their
+     * key and statistics columns. Derived tables (member balances, item frequencies, full-text indexes) are
+     * rebuilt from the copied rows.
+     */
+    static final Migration MIGRATION_4_21 = new Migration(4, 21) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            for (String table : new String[]{"bills", "inventory_items", "shopping_items", "log_entries"}) {
+                db.execSQL("ALTER TABLE `" + table + "` RENAME TO `" + table + "_v4`");
+            }
+            createTables(db);
+            copyBills(db);
+            copyInventory(db);
+            copyShoppingItems(db);
+            copyLogs(db);
+            for (String table : new String[]{"bills", "inventory_items", "shopping_items", "log_entries"}) {
+                db.execSQL("DROP TABLE `" + table + "_v4`");
+            }
+        }
+    };
+
+    private static void createTables(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS `shopping_items` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                + "`name` TEXT NOT NULL, `added_by` TEXT NOT NULL, `name_key` TEXT NOT NULL, "
+                + "`added_by_key` TEXT NOT NULL, `quantity` INTEGER NOT NULL, `purchased` INTEGER NOT NULL, "
+                + "`created_at` INTEGER NOT NULL, `inventory_item_id` TEXT)");
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_shopping_items_name_key_added_by_key` "
+                + "ON `shopping_items` (`name_key`, `added_by_key`)");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS `inventory_items` (`id` TEXT NOT NULL, `name` TEXT, "
+                + "`quantity` INTEGER NOT NULL, `category` TEXT COLLATE NOCASE, `expireDateMillis` INTEGER, "
+                + "`createdAtMillis` INTEGER NOT NULL, `photoUri` TEXT, `nameKey` TEXT NOT NULL, "
+                + "`expiryDay` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_inventory_items_category` ON `inventory_items` (`category`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_inventory_items_expireDateMillis` "
+                + "ON `inventory_items` (`expireDateMillis`)");
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_inventory_items_nameKey_category_expiryDay` "
+                + "ON `inventory_items` (`nameKey`, `category`, `expiryDay`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_inventory_items_nameKey_expiryDay` "
+                + "ON `inventory_items` (`nameKey`, `expiryDay`)");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS `bills` (`id` TEXT NOT NULL, `name` TEXT, "
+                + "`amountMinor` INTEGER NOT NULL, `currency` TEXT, `status` TEXT, `method` TEXT, "
+                + "`creationDate` TEXT, `payer` TEXT, PRIMARY KEY(`id`))");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_bills_status` ON `bills` (`status` DESC)");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS `log_entries` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                + "`timestamp` INTEGER NOT NULL, `actionType` TEXT, `description` TEXT, `user` TEXT, "
+                + "`entityType` TEXT, `itemId` TEXT, `category` TEXT COLLATE NOCASE, "
+                + "`quantityDelta` INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_log_entries_actionType_category` "
+                + "ON `log_entries` (`actionType`, `category`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_log_entries_timestamp_id` ON `log_entries` (`timestamp`, `id`)");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS `log_daily_rollups` (`day` INTEGER NOT NULL, "
+                + "`actionType` TEXT NOT NULL, `category` TEXT NOT NULL COLLATE NOCASE, "
+                + "`eventCount` INTEGER NOT NULL, `quantityDelta` INTEGER NOT NULL, "
+                + "PRIMARY KEY(`actionType`, `category`, `day`))");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS `bill_participants` (`billId` TEXT NOT NULL, "
+                + "`participant` TEXT NOT NULL, `position` INTEGER NOT NULL, `shareMinor` INTEGER NOT NULL, "
+                + "`paid` INTEGER NOT NULL, PRIMARY KEY(`billId`, `participant`), FOREIGN KEY(`billId`) "
+                + "REFERENCES `bills`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_bill_participants_participant` "
+                + "ON `bill_participants` (`participant`)");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS `member_balances` (`member` TEXT NOT NULL, "
+                + "`currency` TEXT NOT NULL, `netMinor` INTEGER NOT NULL, PRIMARY KEY(`member`, `currency`))");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS `bill_line_items` (`billId` TEXT NOT NULL, "
+                + "`position` INTEGER NOT NULL, `name` TEXT NOT NULL, `quantity` INTEGER NOT NULL, "
+                + "`priceMinor` INTEGER NOT NULL, `shoppingItemId` INTEGER, `inventoryItemId` TEXT, "
+                + "PRIMARY KEY(`billId`, `position`), FOREIGN KEY(`billId`) REFERENCES `bills`(`id`) "
+                + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_bill_line_items_shoppingItemId` "
+                + "ON `bill_line_items` (`shoppingItemId`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_bill_line_items_inventoryItemId` "
+                + "ON `bill_line_items` (`inventoryItemId`)");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS `bill_line_consumers` (`billId` TEXT NOT NULL, "
+                + "`position` INTEGER NOT NULL, `participant` TEXT NOT NULL, "
+                + "PRIMARY KEY(`billId`, `position`, `participant`), FOREIGN KEY(`billId`, `position`) "
+                + "REFERENCES `bill_line_items`(`billId`, `position`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_bill_line_consumers_participant` "
+                + "ON `bill_line_consumers` (`participant`)");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS `item_frequencies` (`nameKey` TEXT NOT NULL, "
+                + "`displayName` TEXT NOT NULL, `score` REAL NOT NULL, `lastUsedMillis` INTEGER NOT NULL, "
+                + "PRIMARY KEY(`nameKey`))");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_frequencies_score` ON `item_frequencies` (`score`)");
+
+        createFts(db, "inventory_fts", "inventory_items", "name", "category");
+        createFts(db, "shopping_items_fts", "shopping_items", "name", "added_by");
+        createFts(db, "bills_fts", "bills", "name");
+        createFts(db, "bill_participants_fts", "bill_participants", "participant");
+    }
+
+    // External-content FTS4 table and the triggers Room uses to keep it in step with its content table
+    private static void createFts(SupportSQLiteDatabase db, String fts, String content, String... columns) {
+        StringBuilder definitions = new StringBuilder();
+        StringBuilder names = new StringBuilder("`docid`");
+        StringBuilder values = new StringBuilder("NEW.`rowid`");
+        for (String column : columns) {
+            definitions.append('`').append(column).append("` TEXT, ");
+            names.append(", `").append(column).append('`');
+            values.append(", NEW.`").append(column).append('`');
+        }
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `" + fts + "` USING FTS4(" + definitions
+                + "tokenize=unicode61, content=`" + content + "`, prefix=`2,3`)");
+        String delete = "BEGIN DELETE FROM `" + fts + "` WHERE `docid`=OLD.`rowid`; END";
+        String insert = "BEGIN INSERT INTO `" + fts + "`(" + names + ") VALUES (" + values + "); END";
+        String prefix = "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_" + fts + "_";
+        db.execSQL(prefix + "BEFORE_UPDATE BEFORE UPDATE ON `" + content + "` " + delete);
+        db.execSQL(prefix + "BEFORE_DELETE BEFORE DELETE ON `" + content + "` " + delete);
+        db.execSQL(prefix + "AFTER_UPDATE AFTER UPDATE ON `" + content + "` " + insert);
+        db.execSQL(prefix + "AFTER_INSERT AFTER INSERT ON `" + content + "` " + insert);
+    }
+
+    // Amounts were display strings and participants and custom amounts comma-separated columns
+    private static void copyBills(SupportSQLiteDatabase db) {
+        try (Cursor cursor = db.query("SELECT id, name, amount, status, method, participants, customAmounts, "
+                + "creationDate FROM bills_v4")) {
+            while (cursor.moveToNext()) {
+                Money amount = Money.parseOrZero(cursor.getString(2));
+                BillItem bill = new BillItem(cursor.getString(0), cursor.getString(1), amount.getMinor(),
+                        amount.getCurrency(), cursor.getString(3), cursor.getString(4), cursor.getString(7));
+                bill.setParticipants(splitParticipants(cursor.getString(5)));
+                bill.setCustomAmounts(splitAmounts(cursor.getString(6)));
+
+                ContentValues values = new ContentValues();
+                values.put("id", bill.getId());
+                values.put("name", bill.getName());
+                values.put("amountMinor", bill.getAmountMinor());
+                values.put("currency", bill.getCurrency());
+                values.put("status", bill.getStatus());
+                values.put("method", bill.getMethod());
+                values.put("creationDate", bill.getCreationDate());
+                db.insert("bills", SQLiteDatabase.CONFLICT_ABORT, values);
+                for (BillParticipant row : BillRepository.toParticipantRows(bill)) {
+                    ContentValues participant = new ContentValues();
+                    participant.put("billId", row.billId);
+                    participant.put("participant", row.participant);
+                    participant.put("position", row.position);
+                    participant.put("shareMinor", row.shareMinor);
+                    participant.put("paid", row.paid);
+                    db.insert("bill_participants", SQLiteDatabase.CONFLICT_ABORT, participant);
+                }
+            }
+        }
+    }
+
+    // Participants are primary key parts now, so blanks and repeats are dropped
+    private static List<String> splitParticipants(String joined) {
+        Set<String> participants = new LinkedHashSet<>();
+        if (joined != null) {
+            for (String participant : joined.split(",")) {
+                if (!participant.trim().isEmpty()) {
+                    participants.add(participant.trim());
+                }
+            }
+        }
+        return new ArrayList<>(participants);
+    }
+
+    // Custom amounts were doubles in major units
+    private static List<Long> splitAmounts(String joined) {
+        List<Long> amounts = new ArrayList<>();
+        if (joined == null)
+            return amounts;
+        for (String amount : joined.split(",")) {
+            if (amount.trim().isEmpty())
+                continue;
+            try {
+                amounts.add(new BigDecimal(amount.trim()).setScale(2, RoundingMode.HALF_UP)
+                        .unscaledValue().longValueExact());
+            } catch (NumberFormatException | ArithmeticException e) {
+                e.printStackTrace();
+                amounts.add(0L);
+            }
+        }
+        return amounts;
+    }
+
+    // Rows that now share a merge key are folded into one, as the add path would have done
+    private static void copyInventory(SupportSQLiteDatabase db) {
+        try (Cursor cursor = db.query("SELECT id, name, quantity, category, expireDateMillis, createdAtMillis, "
+                + "photoUri FROM inventory_items_v4")) {
+            while (cursor.moveToNext()) {
+                InventoryItem item = new InventoryItem(cursor.getString(0), cursor.getString(1), cursor.getInt(2),
+                        cursor.getString(3), cursor.isNull(4) ? null : cursor.getLong(4), cursor.getLong(5),
+                        cursor.getString(6));
+                item.refreshMergeKey();
+                ContentValues values = new ContentValues();
+                values.put("id", item.id);
+                values.put("name", item.name);
+                values.put("quantity", item.quantity);
+                values.put("category", item.category);
+                values.put("expireDateMillis", item.expireDateMillis);
+                values.put("createdAtMillis", item.createdAtMillis);
+                values.put("photoUri", item.photoUri);
+                values.put("nameKey", item.nameKey);
+                values.put("expiryDay", item.expiryDay);
+                if (db.insert("inventory_items", SQLiteDatabase.CONFLICT_IGNORE, values) == -1) {
+                    db.execSQL("UPDATE inventory_items SET quantity = quantity + ? "
+                                    + "WHERE nameKey = ? AND category = ? AND expiryDay = ?",
+                            new Object[]{item.quantity, item.nameKey, item.category, item.expiryDay});
+                }
+            }
+        }
+    }
+
+    // Items that now share a (name, added by) key are folded into one row
+    private static void copyShoppingItems(SupportSQLiteDatabase db) {
+        try (Cursor cursor = db.query("SELECT id, name, added_by, quantity, purchased, created_at, "
+                + "inventory_item_id FROM shopping_items_v4")) {
+            while (cursor.moveToNext()) {
+                String nameKey = ItemNames.canonical(cursor.getString(1));
+                String addedByKey = ItemNames.key(cursor.getString(2));
+                ContentValues values = new ContentValues();
+                values.put("id", cursor.getLong(0));
+                values.put("name", cursor.getString(1));
+                values.put("added_by", cursor.getString(2));
+                values.put("name_key", nameKey);
+                values.put("added_by_key", addedByKey);
+                values.put("quantity", cursor.getInt(3));
+                values.put("purchased", cursor.getInt(4));
+                values.put("created_at", cursor.getLong(5));
+                values.put("inventory_item_id", cursor.getString(6));
+                if (db.insert("shopping_items", SQLiteDatabase.CONFLICT_IGNORE, values) == -1) {
+                    db.execSQL("UPDATE shopping_items SET quantity = quantity + ? "
+                                    + "WHERE name_key = ? AND added_by_key = ?",
+                            new Object[]{cursor.getInt(3), nameKey, addedByKey});
+                }
+            }
+        }
+    }
+
+    // Old entries keep their text; the structured statistics columns start empty. Event types are prefixed
+    // with their entity type.
+    private static void copyLogs(SupportSQLiteDatabase db) {
+        db.execSQL("INSERT INTO log_entries (id, timestamp, actionType, description, user, entityType, "
+                        + "quantityDelta) SELECT id, timestamp, actionType, description, user, "
+                        + "CASE WHEN actionType GLOB ? THEN ? WHEN actionType GLOB ? THEN ? "
+                        + "WHEN actionType GLOB ? THEN ? END, 0 FROM log_entries_v4",
+                new Object[]{
+                        EventLogManager.ENTITY_TYPE_INVENTORY + "*", EventLogManager.ENTITY_TYPE_INVENTORY,
+                        EventLogManager.ENTITY_TYPE_SHOPPING_LIST + "*", EventLogManager.ENTITY_TYPE_SHOPPING_LIST,
+                        EventLogManager.ENTITY_TYPE_BILL + "*", EventLogManager.ENTITY_TYPE_BILL});
+    }
+}
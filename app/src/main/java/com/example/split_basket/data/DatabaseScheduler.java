@@ -0,0 +1,256 @@
+package com.example.split_basket.data;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.split_basket.callback.QueryCallback;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * App-wide scheduler for all database work.
+ * <p>
+ * Mirrors SQLite's WAL model used by Room: one writer lane (single thread, so writes never
+ * contend for the write lock) and a small reader lane. Reads carry a {@link Priority} so
+ * queries backing visible UI run ahead of background reads.
+ */
+public final class DatabaseScheduler {
+
+    private static final int READ_THREADS = 2;
+    private static volatile DatabaseScheduler INSTANCE;
+    private final ThreadPoolExecutor readPool;
+    private final ThreadPoolExecutor writePool;
+    private final LaneMetrics readMetrics = new LaneMetrics();
+    private final LaneMetrics writeMetrics = new LaneMetrics();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private DatabaseScheduler() {
+        readPool = new ThreadPoolExecutor(READ_THREADS, READ_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), new NamedThreadFactory("db-read"));
+        writePool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory("db-write"));
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+    }
+
+    public static DatabaseScheduler getInstance() {
+        if (INSTANCE == null) {
+            synchronized (DatabaseScheduler.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new DatabaseScheduler();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Run a read on the reader lane
+     *
+     * @param priority UI for reads whose result is about to be shown, BACKGROUND otherwise
+     * @param task     read to run
+     */
+    public void read(@NonNull Priority priority, @NonNull Runnable task) {
+        readPool.execute(new ReadTask(priority, sequence.getAndIncrement(), readMetrics.wrap(task)));
+    }
+
+    /**
+     * Run a UI-priority read and deliver the result (or fallback on failure) on the main thread
+     */
+    public <T> void query(@NonNull Callable<T> query, @Nullable T fallback, @NonNull QueryCallback<T> callback) {
+        read(Priority.UI, () -> {
+            T result = null;
+            try {
+                result = query.call();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            T delivered = result != null ? result : fallback;
+            mainHandler.post(() -> callback.onResult(delivered));
+        });
+    }
+
+    /**
+     * Run a write on the single writer lane; writes execute in submission order
+     */
+    public void write(@NonNull Runnable task) {
+        writePool.execute(writeMetrics.wrap(task));
+    }
+
+    /**
+     * Run a write on the writer lane after a delay
+     */
+    public void writeDelayed(@NonNull Runnable task, long delayMillis) {
+        mainHandler.postDelayed(() -> write(task), delayMillis);
+    }
+
+    public <T> Future<T> submitWrite(@NonNull Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        write(future);
+        return future;
+    }
+
+    public void postToMain(@NonNull Runnable task) {
+        mainHandler.post(task);
+    }
+
+    /**
+     * Executor view of the reader lane, e.g. for Room's LiveData queries
+     */
+    @NonNull
+    public Executor getReadExecutor(@NonNull Priority priority) {
+        return task -> read(priority, task);
+    }
+
+    @NonNull
+    public Executor getWriteExecutor() {
+        return this::write;
+    }
+
+    // Metrics
+
+    public int getReadQueueDepth() {
+        return readPool.getQueue().size();
+    }
+
+    public int getWriteQueueDepth() {
+        return writePool.getQueue().size();
+    }
+
+    @NonNull
+    public LaneMetrics getReadMetrics() {
+        return readMetrics;
+    }
+
+    @NonNull
+    public LaneMetrics getWriteMetrics() {
+        return writeMetrics;
+    }
+
+    private void shutdown() {
+        shutdown(writePool);
+        shutdown(readPool);
+    }
+
+    private static void shutdown(ThreadPoolExecutor pool) {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(3, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public enum Priority {
+        UI,
+        BACKGROUND
+    }
+
+    /**
+     * Task latency counters for one lane. Wait is time spent queued, run is time spent executing.
+     */
+    public static final class LaneMetrics {
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong totalRunNanos = new AtomicLong();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        Runnable wrap(@NonNull Runnable task) {
+            long enqueuedAt = System.nanoTime();
+            return () -> {
+                long startedAt = System.nanoTime();
+                try {
+                    task.run();
+                } finally {
+                    long finishedAt = System.nanoTime();
+                    record(startedAt - enqueuedAt, finishedAt - startedAt);
+                }
+            };
+        }
+
+        private void record(long waitNanos, long runNanos) {
+            completed.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            totalRunNanos.addAndGet(runNanos);
+            long latency = waitNanos + runNanos;
+            long max;
+            do {
+                max = maxLatencyNanos.get();
+            } while (latency > max && !maxLatencyNanos.compareAndSet(max, latency));
+        }
+
+        public long getCompletedCount() {
+            return completed.get();
+        }
+
+        public double getAverageWaitMillis() {
+            long count = completed.get();
+            return count == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / count;
+        }
+
+        public double getAverageRunMillis() {
+            long count = completed.get();
+            return count == 0 ? 0 : totalRunNanos.get() / 1_000_000.0 / count;
+        }
+
+        public double getMaxLatencyMillis() {
+            return maxLatencyNanos.get() / 1_000_000.0;
+        }
+    }
+
+    // Queue entry for the reader lane: higher priority first, then submission order
+    private static final class ReadTask implements Runnable, Comparable<ReadTask> {
+        private final Priority priority;
+        private final long sequence;
+        private final Runnable task;
+
+        ReadTask(Priority priority, long sequence, Runnable task) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public int compareTo(ReadTask other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
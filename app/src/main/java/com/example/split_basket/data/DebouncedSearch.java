@@ -0,0 +1,89 @@
+package com.example.split_basket.data;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.example.split_basket.callback.QueryCallback;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Search-as-you-type over a full-text index. {@link #setQuery(String)} can be called on every keystroke:
+ * the lookup runs once typing pauses for {@link #DELAY_MILLIS}, and the result of a lookup overtaken by
+ * newer text is dropped. Results are delivered on the main thread; use from the main thread only.
+ */
+public final class DebouncedSearch<T> {
+
+    static final long DELAY_MILLIS = 150;
+    // Rows returned per lookup; a search list longer than this is no longer useful to scroll
+    static final int RESULT_LIMIT = 200;
+
+    interface Source<T> {
+        @WorkerThread
+        List<T> search(@NonNull String match);
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable pendingLookup = this::lookup;
+    private final Source<T> source;
+    private final QueryCallback<List<T>> callback;
+    private String match;
+    // Bumped for every new query; a result is delivered only if no newer query came in meanwhile
+    private int generation;
+
+    DebouncedSearch(@NonNull Source<T> source, @NonNull QueryCallback<List<T>> callback) {
+        this.source = source;
+        this.callback = callback;
+    }
+
+    /**
+     * Search for items with words starting with the words of the text.
+     * Text without any words delivers an empty result right away.
+     */
+    @MainThread
+    public void setQuery(@Nullable String text) {
+        cancel();
+        match = FtsQuery.prefixMatch(text);
+        if (match == null) {
+            callback.onResult(Collections.emptyList());
+            return;
+        }
+        handler.postDelayed(pendingLookup, DELAY_MILLIS);
+    }
+
+    /**
+     * Search again with the current text right away, e.g. after the underlying data changed
+     */
+    @MainThread
+    public void refresh() {
+        if (match == null)
+            return;
+        cancel();
+        lookup();
+    }
+
+    /**
+     * Drop the pending lookup and any result still in flight
+     */
+    @MainThread
+    public void cancel() {
+        generation++;
+        handler.removeCallbacks(pendingLookup);
+    }
+
+    private void lookup() {
+        int current = generation;
+        String query = match;
+        DatabaseScheduler.getInstance().query(() -> source.search(query), Collections.<T>emptyList(), result -> {
+            if (current == generation) {
+                callback.onResult(result);
+            }
+        });
+    }
+}
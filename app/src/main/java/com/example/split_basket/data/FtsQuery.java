@@ -0,0 +1,47 @@
+package com.example.split_basket.data;
+
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Turns typed search text into an FTS MATCH expression
+ */
+final class FtsQuery {
+
+    private FtsQuery() {
+    }
+
+    /**
+     * Prefix match on every word of the text, e.g. "Green app" becomes "green* app*".
+     * Anything other than letters and digits separates words, so user text can never form FTS syntax;
+     * lowercasing keeps words like "or" from being read as operators.
+     *
+     * @return the expression, or null when the text has no words
+     */
+    @Nullable
+    static String prefixMatch(@Nullable String text) {
+        if (text == null)
+            return null;
+        StringBuilder match = new StringBuilder(text.length() + 8);
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (!inWord && match.length() > 0) {
+                    match.append(' ');
+                }
+                match.appendCodePoint(codePoint);
+                inWord = true;
+            } else if (inWord) {
+                match.append('*');
+                inWord = false;
+            }
+        }
+        if (inWord) {
+            match.append('*');
+        }
+        return match.length() == 0 ? null : match.toString().toLowerCase(Locale.ROOT);
+    }
+}
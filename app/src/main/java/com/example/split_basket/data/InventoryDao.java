@@ -6,6 +6,7 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.example.split_basket.InventoryItem;
@@ -20,12 +21,55 @@ public interface InventoryDao {
     @Query("SELECT * FROM inventory_items")
     LiveData<List<InventoryItem>> observeItems();
 
+    @Query("SELECT name FROM inventory_items")
+    List<String> getAllNames();
+
+    // Items whose name or category matches an FTS expression, see FtsQuery
+    @Query("SELECT inventory_items.* FROM inventory_items JOIN inventory_fts "
+            + "ON inventory_items.rowid = inventory_fts.rowid WHERE inventory_fts MATCH :match "
+            + "ORDER BY inventory_items.nameKey, inventory_items.expiryDay LIMIT :limit")
+    List<InventoryItem> search(String match, int limit);
+
     @Query("SELECT * FROM inventory_items WHERE id = :id")
     InventoryItem getItemById(String id);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insert(InventoryItem item);
 
+    @Query("SELECT * FROM inventory_items WHERE nameKey = :nameKey AND category = :category "
+            + "AND expiryDay = :expiryDay LIMIT 1")
+    InventoryItem findByMergeKey(String nameKey, String category, long expiryDay);
+
+    // Lots of one item in consumption order: earliest expiry first, then oldest
+    @Query("SELECT * FROM inventory_items WHERE nameKey = :nameKey AND quantity > 0 "
+            + "ORDER BY expiryDay, createdAtMillis")
+    List<InventoryItem> getLotsInConsumptionOrder(String nameKey);
+
+    @Query("SELECT MIN(expireDateMillis) FROM inventory_items WHERE nameKey = :nameKey AND quantity > 0")
+    Long getNextExpiry(String nameKey);
+
+    /**
+     * Insert the item, or add its quantity to the row with the same name, category and expiry day.
+     * The unique merge key index makes the lookup a single index probe.
+     *
+     * @return the row now holding the quantity
+     */
+    @Transaction
+    default InventoryItem upsert(InventoryItem item) {
+        item.refreshMergeKey();
+        InventoryItem existing = findByMergeKey(item.nameKey, item.category, item.expiryDay);
+        if (existing == null) {
+            insert(item);
+            return item;
+        }
+        existing.quantity += item.quantity;
+        if (existing.photoUri == null) {
+            existing.photoUri = item.photoUri;
+        }
+        update(existing);
+        return existing;
+    }
+
     @Update(onConflict = OnConflictStrategy.REPLACE)
     void update(InventoryItem item);
 
@@ -40,4 +84,36 @@ public interface InventoryDao {
 
     @Query("SELECT COUNT(*) FROM inventory_items")
     int countItems();
+
+    @Query("SELECT COUNT(*) FROM inventory_items")
+    LiveData<Integer> observeItemCount();
+
+    // Aggregates for the dashboards; category and expiry filters are served by their indexes
+
+    @Query("SELECT COALESCE(SUM(MAX(quantity, 0)), 0) FROM inventory_items")
+    LiveData<Integer> observeTotalQuantity();
+
+    @Query("SELECT COALESCE(SUM(MAX(quantity, 0)), 0) FROM inventory_items WHERE category = :category")
+    LiveData<Integer> observeTotalQuantity(String category);
+
+    // The window starts at SQLite's clock, so every rerun of the query counts from the current time
+
+    @Query("SELECT COUNT(*) FROM inventory_items WHERE expireDateMillis "
+            + "BETWEEN strftime('%s', 'now') * 1000 AND strftime('%s', 'now') * 1000 + :windowMillis")
+    LiveData<Integer> observeExpiringCount(long windowMillis);
+
+    @Query("SELECT COUNT(*) FROM inventory_items WHERE category = :category AND expireDateMillis "
+            + "BETWEEN strftime('%s', 'now') * 1000 AND strftime('%s', 'now') * 1000 + :windowMillis")
+    LiveData<Integer> observeExpiringCount(String category, long windowMillis);
+
+    @Query("SELECT COUNT(*) FROM inventory_items WHERE expireDateMillis BETWEEN :fromMillis AND :toMillis")
+    int countExpiring(long fromMillis, long toMillis);
+
+    @Query("SELECT * FROM inventory_items WHERE expireDateMillis BETWEEN :fromMillis AND :toMillis "
+            + "ORDER BY expireDateMillis")
+    List<InventoryItem> getExpiringItems(long fromMillis, long toMillis);
+
+    @Query("SELECT category, COUNT(*) AS itemCount, COALESCE(SUM(quantity), 0) AS totalQuantity "
+            + "FROM inventory_items GROUP BY category ORDER BY category")
+    List<CategoryCount> getCategoryCounts();
 }
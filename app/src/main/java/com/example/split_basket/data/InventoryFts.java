@@ -0,0 +1,18 @@
+package com.example.split_basket.data;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+import com.example.split_basket.InventoryItem;
+
+/**
+ * Full-text index over inventory item names and categories. Room keeps it in step with
+ * inventory_items through triggers; rows are joined back by rowid.
+ */
+@Fts4(contentEntity = InventoryItem.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61, prefix = {2, 3})
+@Entity(tableName = "inventory_fts")
+public class InventoryFts {
+    public String name;
+    public String category;
+}
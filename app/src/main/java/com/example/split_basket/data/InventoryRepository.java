@@ -3,40 +3,63 @@ package com.example.split_basket.data;
 import android.content.Context;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 
 import com.example.split_basket.EventLogManager;
 import com.example.split_basket.InventoryItem;
+import com.example.split_basket.ItemNames;
+import com.example.split_basket.ShoppingItem;
+import com.example.split_basket.callback.ImportCallback;
+import com.example.split_basket.callback.OperationCallback;
+import com.example.split_basket.callback.QueryCallback;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 public class InventoryRepository {
 
+    // Rows written between progress updates during an import
+    private static final int IMPORT_PROGRESS_STEP = 50;
+    // Log actions whose quantity deltas count as stock taken out
+    private static final List<String> TAKEN_ACTION_TYPES = Collections.unmodifiableList(Arrays.asList(
+            EventLogManager.EVENT_TYPE_INVENTORY_CONSUME, EventLogManager.EVENT_TYPE_INVENTORY_REMOVE));
+
     private static volatile InventoryRepository INSTANCE;
+    private final SplitBasketDatabase database;
     private final InventoryDao inventoryDao;
-    private final ExecutorService executorService = Executors.newFixedThreadPool(2);
+    private final ShoppingListDao shoppingListDao;
+    private final ItemFrequencyDao itemFrequencyDao;
+    private final NameDictionary nameDictionary;
+    private final LogDao logDao;
+    private final DatabaseScheduler scheduler;
     private final Context appContext;
     private final EventLogManager eventLogManager;
     private volatile boolean seeded = false;
 
-    private InventoryRepository(@NonNull Context context) {
+    private InventoryRepository(@NonNull Context context, @NonNull DatabaseScheduler scheduler) {
         appContext = context.getApplicationContext();
-        SplitBasketDatabase database = SplitBasketDatabase.getInstance(appContext);
+        database = SplitBasketDatabase.getInstance(appContext);
         inventoryDao = database.inventoryDao();
+        shoppingListDao = database.shoppingListDao();
+        itemFrequencyDao = database.itemFrequencyDao();
+        nameDictionary = NameDictionary.getInstance(appContext);
+        logDao = database.logDao();
         eventLogManager = EventLogManager.getInstance(appContext);
-        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+        this.scheduler = scheduler;
     }
 
     public static InventoryRepository getInstance(@NonNull Context context) {
         if (INSTANCE == null) {
             synchronized (InventoryRepository.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = new InventoryRepository(context.getApplicationContext());
+                    INSTANCE = new InventoryRepository(context.getApplicationContext(), DatabaseScheduler.getInstance());
                 }
             }
         }
@@ -46,7 +69,7 @@ public class InventoryRepository {
     public void ensureSeedData() {
         if (seeded)
             return;
-        executorService.execute(() -> {
+        scheduler.write(() -> {
             if (inventoryDao.countItems() == 0) {
                 // Add default inventory items
                 long currentTime = System.currentTimeMillis();
@@ -61,11 +84,11 @@ public class InventoryRepository {
                 InventoryItem yogurt = new InventoryItem("yogurt-001", "Yogurt", 3, "Dairy",
                         currentTime + (21L * 24 * 60 * 60 * 1000), currentTime, null);
 
-                inventoryDao.insert(milk);
-                inventoryDao.insert(bread);
-                inventoryDao.insert(eggs);
-                inventoryDao.insert(apple);
-                inventoryDao.insert(yogurt);
+                inventoryDao.upsert(milk);
+                inventoryDao.upsert(bread);
+                inventoryDao.upsert(eggs);
+                inventoryDao.upsert(apple);
+                inventoryDao.upsert(yogurt);
             }
             seeded = true;
         });
@@ -75,43 +98,256 @@ public class InventoryRepository {
         return inventoryDao.observeItems();
     }
 
-    public List<InventoryItem> getItems() {
-        List<InventoryItem> result = null;
-        try {
-            result = executorService.submit(inventoryDao::getAllItems).get();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return result != null ? result : java.util.Collections.emptyList();
+    public void getItems(@NonNull QueryCallback<List<InventoryItem>> callback) {
+        scheduler.query(inventoryDao::getAllItems, Collections.emptyList(), callback);
+    }
+
+    /**
+     * Search-as-you-type over item names and categories, by word prefix
+     */
+    public DebouncedSearch<InventoryItem> newSearch(@NonNull QueryCallback<List<InventoryItem>> callback) {
+        return new DebouncedSearch<>(match -> inventoryDao.search(match, DebouncedSearch.RESULT_LIMIT), callback);
+    }
+
+    public LiveData<Integer> observeItemCount() {
+        return inventoryDao.observeItemCount();
+    }
+
+    /**
+     * Sum of quantities in stock, computed by SQLite
+     *
+     * @param category category to sum, or null for all categories
+     */
+    public LiveData<Integer> observeTotalQuantity(@Nullable String category) {
+        return category == null ? inventoryDao.observeTotalQuantity() : inventoryDao.observeTotalQuantity(category);
+    }
+
+    /**
+     * Number of items expiring between now and windowMillis from now, counted again whenever the table
+     * changes. Nothing reruns it when only the clock moves; observers that stay open resubscribe for that.
+     *
+     * @param category category to count, or null for all categories
+     */
+    public LiveData<Integer> observeExpiringCount(@Nullable String category, long windowMillis) {
+        return category == null
+                ? inventoryDao.observeExpiringCount(windowMillis)
+                : inventoryDao.observeExpiringCount(category, windowMillis);
+    }
+
+    public void countExpiring(long fromMillis, long toMillis, @NonNull QueryCallback<Integer> callback) {
+        scheduler.query(() -> inventoryDao.countExpiring(fromMillis, toMillis), 0, callback);
+    }
+
+    public void getExpiringItems(long fromMillis, long toMillis,
+                                 @NonNull QueryCallback<List<InventoryItem>> callback) {
+        scheduler.query(() -> inventoryDao.getExpiringItems(fromMillis, toMillis), Collections.emptyList(), callback);
+    }
+
+    public void getCategoryCounts(@NonNull QueryCallback<List<CategoryCount>> callback) {
+        scheduler.query(inventoryDao::getCategoryCounts, Collections.emptyList(), callback);
     }
 
     public Future<Void> addItem(@NonNull InventoryItem item) {
-        return executorService.submit(() -> {
-            inventoryDao.insert(item);
-            // Add log record
-            eventLogManager.addLog(
-                    EventLogManager.EVENT_TYPE_INVENTORY_ADD,
-                    item.name + " x" + item.quantity + " | " + item.category,
-                    "xxx" // Default user
-            );
+        return scheduler.submitWrite(() -> {
+            insertAndLog(item);
             return null;
         });
     }
 
+    public void addItem(@NonNull InventoryItem item, @NonNull OperationCallback callback) {
+        scheduler.write(() -> {
+            boolean success = true;
+            try {
+                insertAndLog(item);
+            } catch (Exception e) {
+                e.printStackTrace();
+                success = false;
+            }
+            boolean result = success;
+            scheduler.postToMain(() -> callback.onComplete(result, result ? item.name : ""));
+        });
+    }
+
+    private void insertAndLog(@NonNull InventoryItem item) {
+        if (item.name != null) {
+            // A misspelling of a known item is stored under the known spelling, so the rows can merge
+            item.name = nameDictionary.resolve(item.name);
+        }
+        // Merges into an existing row when one has the same name, category and expiry day
+        InventoryItem stored = inventoryDao.upsert(item);
+        itemFrequencyDao.recordUse(item.name, System.currentTimeMillis());
+        logAdd(stored, item.quantity);
+    }
+
+    private void logAdd(@NonNull InventoryItem stored, int addedQuantity) {
+        // Add log record
+        eventLogManager.addLog(
+                EventLogManager.EVENT_TYPE_INVENTORY_ADD,
+                stored.name + " x" + addedQuantity + " | " + stored.category,
+                "xxx", // Default user
+                stored.id, stored.category, addedQuantity
+        );
+    }
+
+    /**
+     * Move all purchased shopping items into inventory as one transaction: same-name items are merged
+     * into a single inventory row (or into the existing row for that item) and the shopping rows are deleted. Progress and the result are delivered
+     * on the main thread.
+     */
+    public void importPurchasedItems(@NonNull ImportCallback callback) {
+        scheduler.write(() -> {
+            int[] imported = new int[1];
+            List<InventoryItem> merged = new ArrayList<>();
+            List<InventoryItem> stored = new ArrayList<>();
+            boolean success = true;
+            try {
+                database.runInTransaction(() -> {
+                    List<ShoppingItem> purchased = shoppingListDao.getPurchasedItems();
+                    imported[0] = purchased.size();
+                    merged.addAll(mergePurchased(purchased));
+                    int total = merged.size();
+                    List<String> names = new ArrayList<>(total);
+                    for (int start = 0; start < total; start += IMPORT_PROGRESS_STEP) {
+                        int end = Math.min(start + IMPORT_PROGRESS_STEP, total);
+                        for (int i = start; i < end; i++) {
+                            stored.add(inventoryDao.upsert(merged.get(i)));
+                            names.add(merged.get(i).name);
+                        }
+                        scheduler.postToMain(() -> callback.onProgress(end, total));
+                    }
+                    itemFrequencyDao.recordUses(names, System.currentTimeMillis());
+                    shoppingListDao.deletePurchased();
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+                success = false;
+            }
+            if (success) {
+                // One entry per inventory row; the log buffer writes them as one batch
+                for (int i = 0; i < merged.size(); i++) {
+                    logAdd(stored.get(i), merged.get(i).quantity);
+                }
+            }
+            boolean result = success;
+            scheduler.postToMain(() -> callback.onComplete(result, result ? imported[0] : 0));
+        });
+    }
+
+    // Inventory rows for purchased shopping items, one per canonical name
+    static List<InventoryItem> mergePurchased(@NonNull List<ShoppingItem> purchased) {
+        Map<String, InventoryItem> byName = new LinkedHashMap<>();
+        for (ShoppingItem shoppingItem : purchased) {
+            String name = shoppingItem.getName().trim();
+            String key = ItemNames.canonical(name);
+            InventoryItem item = byName.get(key);
+            if (item == null) {
+                // Default category "Other", no expiry date, created when it was put on the list
+                item = new InventoryItem(UUID.randomUUID().toString(), name, shoppingItem.getQuantity(), "Other",
+                        null, shoppingItem.getCreatedAt());
+                byName.put(key, item);
+            } else {
+                item.quantity += shoppingItem.getQuantity();
+                item.createdAtMillis = Math.min(item.createdAtMillis, shoppingItem.getCreatedAt());
+            }
+        }
+        return new ArrayList<>(byName.values());
+    }
+
+    /**
+     * Take units of an item out of stock in one transaction, draining the earliest-expiring lots first.
+     * Lots without an expiry date are used last and emptied lots are deleted. The result is delivered
+     * on the main thread.
+     */
+    public void consume(@NonNull String name, int quantity, @NonNull QueryCallback<ConsumeResult> callback) {
+        scheduler.write(() -> {
+            String nameKey = ItemNames.canonical(nameDictionary.match(name));
+            ConsumeResult result = new ConsumeResult();
+            List<InventoryItem> touched = new ArrayList<>();
+            List<Integer> taken = new ArrayList<>();
+            try {
+                database.runInTransaction(() -> {
+                    List<InventoryItem> lots = inventoryDao.getLotsInConsumptionOrder(nameKey);
+                    int[] plan = planConsumption(lots, quantity);
+                    for (int i = 0; i < plan.length && plan[i] > 0; i++) {
+                        InventoryItem lot = lots.get(i);
+                        lot.quantity -= plan[i];
+                        if (lot.quantity == 0) {
+                            inventoryDao.deleteById(lot.id);
+                            result.emptiedLotIds.add(lot.id);
+                        } else {
+                            inventoryDao.update(lot);
+                        }
+                        result.consumed += plan[i];
+                        touched.add(lot);
+                        taken.add(plan[i]);
+                    }
+                    result.nextExpiry = inventoryDao.getNextExpiry(nameKey);
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+                // Rolled back: nothing was consumed
+                result.consumed = 0;
+                result.emptiedLotIds.clear();
+                touched.clear();
+            }
+            // One entry per lot drawn from, with the units taken as a negative delta
+            for (int i = 0; i < touched.size(); i++) {
+                InventoryItem lot = touched.get(i);
+                eventLogManager.addLog(
+                        EventLogManager.EVENT_TYPE_INVENTORY_CONSUME,
+                        lot.name + " x" + taken.get(i) + " | " + lot.category,
+                        "xxx", // Default user
+                        lot.id, lot.category, -taken.get(i)
+                );
+            }
+            scheduler.postToMain(() -> callback.onResult(result));
+        });
+    }
+
+    /**
+     * Units to take from each lot, in lot order, for a FIFO consumption of quantity units.
+     * The total is less than quantity when the lots don't hold enough.
+     */
+    static int[] planConsumption(@NonNull List<InventoryItem> lotsInOrder, int quantity) {
+        int[] plan = new int[lotsInOrder.size()];
+        int remaining = Math.max(0, quantity);
+        for (int i = 0; i < plan.length && remaining > 0; i++) {
+            int take = Math.min(remaining, Math.max(0, lotsInOrder.get(i).quantity));
+            plan[i] = take;
+            remaining -= take;
+        }
+        return plan;
+    }
+
     public void updateItem(@NonNull InventoryItem updated) {
-        executorService.execute(() -> {
-            inventoryDao.update(updated);
+        scheduler.write(() -> {
+            // Read the old quantity so the log records the change
+            InventoryItem previous = inventoryDao.getItemById(updated.id);
+            updated.refreshMergeKey();
+            database.runInTransaction(() -> {
+                InventoryItem sameKey = inventoryDao.findByMergeKey(updated.nameKey, updated.category,
+                        updated.expiryDay);
+                if (sameKey != null && !sameKey.id.equals(updated.id)) {
+                    // The edit made it the same item as another row: fold it into that row
+                    sameKey.quantity += updated.quantity;
+                    inventoryDao.update(sameKey);
+                    inventoryDao.deleteById(updated.id);
+                } else {
+                    inventoryDao.update(updated);
+                }
+            });
             // Add log record
             eventLogManager.addLog(
                     EventLogManager.EVENT_TYPE_INVENTORY_UPDATE,
                     updated.name + " x" + updated.quantity + " | " + updated.category,
-                    "xxx" // Default user
+                    "xxx", // Default user
+                    updated.id, updated.category, updated.quantity - (previous != null ? previous.quantity : 0)
             );
         });
     }
 
     public void removeItem(String id) {
-        executorService.execute(() -> {
+        scheduler.write(() -> {
             // Get the item first to log details
             InventoryItem item = inventoryDao.getItemById(id);
             inventoryDao.deleteById(id);
@@ -121,68 +357,27 @@ public class InventoryRepository {
                 eventLogManager.addLog(
                         EventLogManager.EVENT_TYPE_INVENTORY_REMOVE,
                         item.name + " x" + item.quantity + " | " + item.category,
-                        "xxx" // Default user
+                        "xxx", // Default user
+                        item.id, item.category, -item.quantity
                 );
             }
         });
     }
 
     public void clearAll() {
-        executorService.execute(() -> {
+        scheduler.write(() -> {
             inventoryDao.clearAll();
         });
     }
 
-    // Get logs - this method returns all logs for inventory items
-    public List<String> getLogs() {
-        // Get logs from EventLogManager and convert to the expected format
-        return eventLogManager.getAllLogs().stream()
-                .filter(logEntry -> logEntry.actionType().startsWith("INVENTORY"))
-                .map(logEntry -> {
-                    // Convert the event log to the old format: "time | type | message | category"
-                    String description = logEntry.description();
-                    String category = "";
-                    String formattedMessage = description;
-
-                    // Extract category from message (old format: "name xqty | category")
-                    if (description.contains(" | ")) {
-                        String[] parts = description.split(" \\| ", 2);
-                        formattedMessage = parts[0];
-                        category = parts[1];
-                    }
-
-                    // Map event type to old format (IN/OUT/UPDATE)
-                    String oldType = "";
-                    switch (logEntry.actionType()) {
-                        case EventLogManager.EVENT_TYPE_INVENTORY_ADD:
-                            oldType = "IN";
-                            break;
-                        case EventLogManager.EVENT_TYPE_INVENTORY_REMOVE:
-                            oldType = "OUT";
-                            break;
-                        case EventLogManager.EVENT_TYPE_INVENTORY_UPDATE:
-                            oldType = "UPDATE";
-                            break;
-                        default:
-                            oldType = logEntry.actionType();
-                    }
-
-                    // Return in the expected format
-                    return String.format("%d | %s | %s | %s", logEntry.timestamp(), oldType, formattedMessage,
-                            category);
-                })
-                .collect(Collectors.toList());
-    }
-
-    private void shutdown() {
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(3, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executorService.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
+    /**
+     * Units taken out of stock, by consumption or removal, summed by an indexed query on the event log
+     *
+     * @param category category to count, or null for all categories
+     */
+    public LiveData<Integer> observeConsumedCount(@Nullable String category) {
+        return category == null
+                ? logDao.observeQuantityTaken(TAKEN_ACTION_TYPES)
+                : logDao.observeQuantityTaken(TAKEN_ACTION_TYPES, category);
     }
 }
@@ -0,0 +1,47 @@
+package com.example.split_basket.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * How often an item has been put on the list, bought or stocked, with older uses counting less.
+ * <p>
+ * Each use adds a weight that doubles every {@link #HALF_LIFE_MILLIS}. Comparing stored scores is then the
+ * same as comparing scores decayed to any common point in time, so an update touches one row and the
+ * top-K query is a walk down the score index. The weights grow without bound, so the score column holds
+ * the base-2 logarithm of their sum, which grows by one per half-life and stays in double range.
+ */
+@Entity(tableName = "item_frequencies", indices = {@Index("score")})
+public class ItemFrequency {
+    static final long HALF_LIFE_MILLIS = 14L * 24 * 60 * 60 * 1000;
+    // Weights are relative to this instant (2024-01-01 UTC)
+    static final long EPOCH_MILLIS = 1704067200000L;
+
+    @PrimaryKey
+    @NonNull
+    public String nameKey;
+    @NonNull
+    public String displayName; // Spelling of the most recent use
+    public double score; // log2 of the summed weights
+    public long lastUsedMillis;
+
+    public ItemFrequency(@NonNull String nameKey, @NonNull String displayName, double score, long lastUsedMillis) {
+        this.nameKey = nameKey;
+        this.displayName = displayName;
+        this.score = score;
+        this.lastUsedMillis = lastUsedMillis;
+    }
+
+    // log2 of the weight of a use at the given time
+    static double logWeightAt(long millis) {
+        return (millis - EPOCH_MILLIS) / (double) HALF_LIFE_MILLIS;
+    }
+
+    // log2(2^a + 2^b), factored around the larger term so nothing overflows
+    static double logSum(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.pow(2, -Math.abs(a - b))) / Math.log(2);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.split_basket.data;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.example.split_basket.ItemNames;
+
+import java.util.List;
+
+@Dao
+public interface ItemFrequencyDao {
+
+    @Query("SELECT * FROM item_frequencies ORDER BY score DESC LIMIT :limit")
+    LiveData<List<ItemFrequency>> observeTop(int limit);
+
+    @Query("SELECT * FROM item_frequencies")
+    List<ItemFrequency> getAll();
+
+    @Query("SELECT COUNT(*) FROM item_frequencies")
+    int count();
+
+    @Query("SELECT * FROM item_frequencies WHERE nameKey = :nameKey")
+    ItemFrequency get(String nameKey);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(ItemFrequency frequency);
+
+    @Query("DELETE FROM item_frequencies")
+    void clearAll();
+
+    /**
+     * Count one use of an item now. SQLite has no logarithms, so the log-domain sum is done here.
+     */
+    @Transaction
+    default void recordUse(String name, long nowMillis) {
+        String nameKey = ItemNames.canonical(name);
+        if (nameKey.isEmpty())
+            return;
+        double score = ItemFrequency.logWeightAt(nowMillis);
+        ItemFrequency existing = get(nameKey);
+        if (existing != null) {
+            score = ItemFrequency.logSum(existing.score, score);
+        }
+        upsert(new ItemFrequency(nameKey, name.trim(), score, nowMillis));
+    }
+
+    /**
+     * Count one use of each item now, in one transaction; call it inside a batch's own transaction so
+     * the counts commit together with the rows they describe
+     */
+    @Transaction
+    default void recordUses(List<String> names, long nowMillis) {
+        for (String name : names) {
+            recordUse(name, nowMillis);
+        }
+    }
+}
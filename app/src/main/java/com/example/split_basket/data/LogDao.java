@@ -1,9 +1,11 @@
 package com.example.split_basket.data;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
 import java.util.List;
 
@@ -13,14 +15,88 @@ import java.util.List;
 @Dao
 public interface LogDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insert(LogEntry logEntry);
+    long insert(LogEntry logEntry);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    long[] insertAll(List<LogEntry> logEntries);
 
     @Query("SELECT * FROM log_entries ORDER BY timestamp DESC")
     List<LogEntry> getAllLogs();
 
+    // Keyset pagination, newest first; (timestamp, id) of the last loaded entry marks the page boundary
+
+    @Query("SELECT * FROM log_entries ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    List<LogEntry> getLatestLogs(int limit);
+
+    @Query("SELECT * FROM log_entries WHERE timestamp <= :timestamp AND (timestamp < :timestamp OR id < :id) "
+            + "ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    List<LogEntry> getLogsBefore(long timestamp, long id, int limit);
+
     @Query("DELETE FROM log_entries")
     void clearAllLogs();
 
     @Query("SELECT COUNT(*) FROM log_entries")
     int getLogCount();
+
+    // Counts below are served by the (actionType, category) indexes and include rolled-up entries
+
+    @Query("SELECT (SELECT COUNT(*) FROM log_entries WHERE actionType = :actionType) "
+            + "+ (SELECT COALESCE(SUM(eventCount), 0) FROM log_daily_rollups WHERE actionType = :actionType)")
+    LiveData<Integer> observeCount(String actionType);
+
+    @Query("SELECT (SELECT COUNT(*) FROM log_entries WHERE actionType = :actionType AND category = :category) "
+            + "+ (SELECT COALESCE(SUM(eventCount), 0) FROM log_daily_rollups "
+            + "WHERE actionType = :actionType AND category = :category)")
+    LiveData<Integer> observeCount(String actionType, String category);
+
+    // Units taken out of stock by the given action types: minus the summed quantity deltas, rollups included
+
+    @Query("SELECT -((SELECT COALESCE(SUM(quantityDelta), 0) FROM log_entries WHERE actionType IN (:actionTypes)) "
+            + "+ (SELECT COALESCE(SUM(quantityDelta), 0) FROM log_daily_rollups WHERE actionType IN (:actionTypes)))")
+    LiveData<Integer> observeQuantityTaken(List<String> actionTypes);
+
+    @Query("SELECT -((SELECT COALESCE(SUM(quantityDelta), 0) FROM log_entries "
+            + "WHERE actionType IN (:actionTypes) AND category = :category) "
+            + "+ (SELECT COALESCE(SUM(quantityDelta), 0) FROM log_daily_rollups "
+            + "WHERE actionType IN (:actionTypes) AND category = :category))")
+    LiveData<Integer> observeQuantityTaken(List<String> actionTypes, String category);
+
+    // Retention: entries at or before a (timestamp, id) position, the same keyset order as the pages above,
+    // so entries sharing a timestamp are split by id instead of all going at once
+
+    @Query("SELECT timestamp, id FROM log_entries ORDER BY timestamp DESC, id DESC LIMIT 1 OFFSET :offset")
+    LogPosition getPositionAtOffset(int offset);
+
+    @Query("SELECT (timestamp / 86400000) * 86400000 AS day, actionType, COALESCE(category, '') AS category, "
+            + "COUNT(*) AS eventCount, COALESCE(SUM(quantityDelta), 0) AS quantityDelta "
+            + "FROM log_entries WHERE timestamp <= :timestamp AND (timestamp < :timestamp OR id <= :id) "
+            + "GROUP BY 1, 2, 3")
+    List<LogRollup> summarizeThrough(long timestamp, long id);
+
+    @Query("SELECT * FROM log_daily_rollups WHERE actionType = :actionType AND category = :category AND day = :day")
+    LogRollup getRollup(String actionType, String category, long day);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertRollup(LogRollup rollup);
+
+    @Query("DELETE FROM log_entries WHERE timestamp <= :timestamp AND (timestamp < :timestamp OR id <= :id)")
+    int deleteThrough(long timestamp, long id);
+
+    /**
+     * Fold entries at or before the (timestamp, id) position into the daily rollups, then delete them
+     *
+     * @return number of entries deleted
+     */
+    @Transaction
+    default int rollUpAndDeleteThrough(long timestamp, long id) {
+        for (LogRollup summary : summarizeThrough(timestamp, id)) {
+            LogRollup existing = getRollup(summary.actionType, summary.category, summary.day);
+            if (existing != null) {
+                summary.eventCount += existing.eventCount;
+                summary.quantityDelta += existing.quantityDelta;
+            }
+            insertRollup(summary);
+        }
+        return deleteThrough(timestamp, id);
+    }
 }
@@ -1,12 +1,17 @@
 package com.example.split_basket.data;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
- * Database entity for event logs
+ * Database entity for event logs.
+ * Besides the display description, each entry keeps structured columns so statistics can be
+ * queried directly instead of parsing descriptions.
  */
-@Entity(tableName = "log_entries")
+@Entity(tableName = "log_entries", indices = {@Index({"actionType", "category"}), @Index({"timestamp", "id"})})
 public class LogEntry {
     @PrimaryKey(autoGenerate = true)
     private long id;
@@ -14,12 +19,27 @@ public class LogEntry {
     private String actionType;
     private String description;
     private String user;
+    private String entityType; // INVENTORY/SHOPPING_LIST/BILL
+    private String itemId; // nullable
+    @ColumnInfo(collate = ColumnInfo.NOCASE)
+    private String category; // nullable
+    private int quantityDelta;
 
-    public LogEntry(long timestamp, String actionType, String description, String user) {
+    public LogEntry(long timestamp, String actionType, String description, String user, String entityType,
+                    String itemId, String category, int quantityDelta) {
         this.timestamp = timestamp;
         this.actionType = actionType;
         this.description = description;
         this.user = user;
+        this.entityType = entityType;
+        this.itemId = itemId;
+        this.category = category;
+        this.quantityDelta = quantityDelta;
+    }
+
+    @Ignore
+    public LogEntry(long timestamp, String actionType, String description, String user) {
+        this(timestamp, actionType, description, user, null, null, null, 0);
     }
 
     // Getters and setters
@@ -62,4 +82,36 @@ public class LogEntry {
     public void setUser(String user) {
         this.user = user;
     }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(String itemId) {
+        this.itemId = itemId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public int getQuantityDelta() {
+        return quantityDelta;
+    }
+
+    public void setQuantityDelta(int quantityDelta) {
+        this.quantityDelta = quantityDelta;
+    }
 }
@@ -0,0 +1,9 @@
+package com.example.split_basket.data;
+
+/**
+ * Place of a log entry in (timestamp, id) order, see {@link LogDao#getPositionAtOffset(int)}
+ */
+public class LogPosition {
+    public long timestamp;
+    public long id;
+}
@@ -0,0 +1,95 @@
+package com.example.split_basket.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Keeps log_entries bounded.
+ * <p>
+ * Entries older than {@link #MAX_AGE_DAYS}, or beyond the newest {@link #MAX_ENTRIES}, are folded
+ * into daily per-type/per-category rows in log_daily_rollups and deleted. Freed pages are then
+ * returned to the file system with an incremental vacuum, on databases created in incremental auto_vacuum
+ * mode (see {@link AutoVacuumOpenHelperFactory}). Runs at most once per {@link #RUN_INTERVAL_MILLIS}.
+ */
+public class LogRetentionManager {
+
+    static final int MAX_AGE_DAYS = 90;
+    static final int MAX_ENTRIES = 5000;
+    static final long RUN_INTERVAL_MILLIS = 24L * 60 * 60 * 1000;
+    // Pages released per run, so one run never stalls the writer lane for long
+    private static final int VACUUM_PAGES_PER_RUN = 256;
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+    private static final String PREF_NAME = "log_retention";
+    private static final String KEY_LAST_RUN = "last_run";
+
+    private final SplitBasketDatabase database;
+    private final LogDao logDao;
+    private final SharedPreferences preferences;
+
+    public LogRetentionManager(@NonNull Context context) {
+        Context appContext = context.getApplicationContext();
+        database = SplitBasketDatabase.getInstance(appContext);
+        logDao = database.logDao();
+        preferences = appContext.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Apply the retention policy if the last run is older than the run interval.
+     * Must be called on the writer lane.
+     *
+     * @return number of log entries removed
+     */
+    @WorkerThread
+    public int runIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - preferences.getLong(KEY_LAST_RUN, 0) < RUN_INTERVAL_MILLIS)
+            return 0;
+        int removed = 0;
+        try {
+            removed = run(now);
+            vacuum();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        preferences.edit().putLong(KEY_LAST_RUN, now).apply();
+        return removed;
+    }
+
+    @WorkerThread
+    int run(long now) {
+        // Age limit: every entry older than the cutoff, whatever its id
+        long timestamp = now - MAX_AGE_DAYS * 24L * 60 * 60 * 1000 - 1;
+        long id = Long.MAX_VALUE;
+        // Count cap: the newest entry that doesn't fit and everything older goes too
+        LogPosition overflow = logDao.getPositionAtOffset(MAX_ENTRIES);
+        if (overflow != null && overflow.timestamp > timestamp) {
+            timestamp = overflow.timestamp;
+            id = overflow.id;
+        }
+        return logDao.rollUpAndDeleteThrough(timestamp, id);
+    }
+
+    private void vacuum() {
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        // Files created before incremental mode keep their mode; switching would take a full VACUUM
+        if (queryInt(db, "PRAGMA auto_vacuum") != AUTO_VACUUM_INCREMENTAL)
+            return;
+        // incremental_vacuum frees one page per step, so the cursor has to be drained
+        try (Cursor cursor = db.query("PRAGMA incremental_vacuum(" + VACUUM_PAGES_PER_RUN + ")")) {
+            while (cursor.moveToNext()) {
+                // Nothing to read
+            }
+        }
+    }
+
+    private static int queryInt(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+    }
+}
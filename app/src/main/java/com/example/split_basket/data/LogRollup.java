@@ -0,0 +1,20 @@
+package com.example.split_basket.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * Daily summary of log entries removed by {@link LogRetentionManager}, one row per day, action type and category
+ */
+@Entity(tableName = "log_daily_rollups", primaryKeys = {"actionType", "category", "day"})
+public class LogRollup {
+    public long day; // UTC day start in millis
+    @NonNull
+    public String actionType = "";
+    @NonNull
+    @ColumnInfo(collate = ColumnInfo.NOCASE)
+    public String category = ""; // empty when the entries had no category
+    public int eventCount;
+    public int quantityDelta;
+}
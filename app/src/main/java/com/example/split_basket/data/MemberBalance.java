@@ -0,0 +1,23 @@
+package com.example.split_basket.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+
+/**
+ * Running net balance of one member across unpaid bills, per currency.
+ * Positive means the member is owed money. Kept up to date by {@link BillRepository} writes.
+ */
+@Entity(tableName = "member_balances", primaryKeys = {"member", "currency"})
+public class MemberBalance {
+    @NonNull
+    public String member;
+    @NonNull
+    public String currency;
+    public long netMinor;
+
+    public MemberBalance(@NonNull String member, @NonNull String currency, long netMinor) {
+        this.member = member;
+        this.currency = currency;
+        this.netMinor = netMinor;
+    }
+}
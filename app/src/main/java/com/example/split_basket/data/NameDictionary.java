@@ -0,0 +1,134 @@
+package com.example.split_basket.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import com.example.split_basket.ItemNames;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Item names the app already knows, for folding misspellings into existing items.
+ * <p>
+ * The vocabulary is the canonical keys of item_frequencies, which every list, purchase and inventory add
+ * records. It is loaded once into a {@link BkTree}, so a near-miss lookup touches a small part of the
+ * vocabulary however large it grows. Use on the writer lane.
+ */
+public class NameDictionary {
+
+    // Names shorter than this are never treated as typos
+    static final int MIN_TYPO_LENGTH = 5;
+    static final int MIN_SINGLE_EDIT_LENGTH = 9;
+
+    private static volatile NameDictionary INSTANCE;
+    private final ItemFrequencyDao itemFrequencyDao;
+    private final BkTree tree = new BkTree();
+    // Canonical key -> spelling a near miss is replaced with
+    private final Map<String, String> displayNames = new HashMap<>();
+    private boolean loaded;
+
+    private NameDictionary(@NonNull Context context) {
+        itemFrequencyDao = SplitBasketDatabase.getInstance(context).itemFrequencyDao();
+    }
+
+    public static NameDictionary getInstance(@NonNull Context context) {
+        if (INSTANCE == null) {
+            synchronized (NameDictionary.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new NameDictionary(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Name to store for a typed item name: the known spelling when the name is an unambiguous typo of a
+     * known item ("Banaan" when "Banana" is known), otherwise the name as typed, which from then on is known
+     * too. Plurals, pack notes and synonyms need no lookup, see {@link ItemNames#canonical(String)}.
+     */
+    @WorkerThread
+    public synchronized String resolve(@NonNull String name) {
+        String match = match(name);
+        String key = ItemNames.canonical(match);
+        if (!key.isEmpty() && !displayNames.containsKey(key)) {
+            tree.add(key);
+            displayNames.put(key, match.trim());
+        }
+        return match;
+    }
+
+    /**
+     * Like {@link #resolve(String)}, but an unknown name is not added to the dictionary
+     */
+    @WorkerThread
+    public synchronized String match(@NonNull String name) {
+        ensureLoaded();
+        String key = ItemNames.canonical(name);
+        if (key.isEmpty() || displayNames.containsKey(key))
+            return name;
+        if (key.length() < MIN_TYPO_LENGTH)
+            return name;
+        // A transposition is two Levenshtein edits; isUnambiguousTypo() then decides
+        for (String candidate : tree.search(key, 2)) {
+            if (isUnambiguousTypo(key, candidate))
+                return displayNames.get(candidate);
+        }
+        return name;
+    }
+
+    private void ensureLoaded() {
+        if (loaded)
+            return;
+        for (ItemFrequency frequency : itemFrequencyDao.getAll()) {
+            if (displayNames.put(frequency.nameKey, frequency.displayName) == null) {
+                tree.add(frequency.nameKey);
+            }
+        }
+        loaded = true;
+    }
+
+    /**
+     * Whether the key is safely a misspelling of the candidate, so the add can be folded in without asking.
+     * One edit apart is too loose for everyday words ("paste"/"pasta", "batter"/"butter"), so only two
+     * kinds of typo count: two swapped neighbouring letters, or a single edit in a name of at least
+     * {@link #MIN_SINGLE_EDIT_LENGTH} characters. The first letter and every digit must agree in both cases.
+     */
+    static boolean isUnambiguousTypo(String key, String candidate) {
+        if (key.length() < MIN_TYPO_LENGTH || candidate.isEmpty() || key.charAt(0) != candidate.charAt(0)
+                || !digitsOf(key).equals(digitsOf(candidate)))
+            return false;
+        if (isTransposition(key, candidate))
+            return true;
+        return Math.min(key.length(), candidate.length()) >= MIN_SINGLE_EDIT_LENGTH
+                && BkTree.distance(key, candidate) == 1;
+    }
+
+    // Same letters, with exactly one pair of neighbours swapped
+    private static boolean isTransposition(String a, String b) {
+        if (a.length() != b.length())
+            return false;
+        int first = 0;
+        while (first < a.length() && a.charAt(first) == b.charAt(first)) {
+            first++;
+        }
+        if (first >= a.length() - 1)
+            return false;
+        return a.charAt(first) == b.charAt(first + 1) && a.charAt(first + 1) == b.charAt(first)
+                && a.regionMatches(first + 2, b, first + 2, a.length() - first - 2);
+    }
+
+    private static String digitsOf(String key) {
+        StringBuilder digits = new StringBuilder();
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+}
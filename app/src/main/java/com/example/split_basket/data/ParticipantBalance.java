@@ -0,0 +1,10 @@
+package com.example.split_basket.data;
+
+/**
+ * Row of {@link BillDao#getOutstandingBalances()}: what one participant still owes across unpaid bills
+ */
+public class ParticipantBalance {
+    public String participant;
+    public long owedMinor;
+    public int billCount;
+}
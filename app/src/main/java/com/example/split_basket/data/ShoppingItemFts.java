@@ -0,0 +1,20 @@
+package com.example.split_basket.data;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+import com.example.split_basket.ShoppingItem;
+
+/**
+ * Full-text index over shopping list item names and who added them, kept in step with shopping_items
+ */
+@Fts4(contentEntity = ShoppingItem.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61, prefix = {2, 3})
+@Entity(tableName = "shopping_items_fts")
+public class ShoppingItemFts {
+    @ColumnInfo(name = "name")
+    public String name;
+    @ColumnInfo(name = "added_by")
+    public String addedBy;
+}
@@ -18,8 +18,21 @@ public interface ShoppingListDao {
     @Query("SELECT * FROM shopping_items ORDER BY purchased ASC, created_at ASC")
     LiveData<List<ShoppingItem>> observeItems();
 
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    long insert(ShoppingItem item);
+    /**
+     * Insert unless the same item is already listed for the same person
+     *
+     * @return the new row id, or -1 when the unique key index rejected a duplicate
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertIfAbsent(ShoppingItem item);
+
+    /**
+     * Insert all items in one transaction, skipping duplicates of listed items and of each other
+     *
+     * @return row ids in input order, -1 for each skipped duplicate
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertAllIfAbsent(List<ShoppingItem> items);
 
     @Update
     void update(ShoppingItem item);
@@ -30,6 +43,9 @@ public interface ShoppingListDao {
     @Query("SELECT * FROM shopping_items WHERE purchased = 1")
     List<ShoppingItem> getPurchasedItems();
 
+    @Query("DELETE FROM shopping_items WHERE purchased = 1")
+    int deletePurchased();
+
     @Delete
     void delete(ShoppingItem item);
 
@@ -39,11 +55,14 @@ public interface ShoppingListDao {
     @Query("SELECT COUNT(*) FROM shopping_items")
     int countItems();
 
-    @Query("SELECT COUNT(*) FROM shopping_items WHERE LOWER(name) = LOWER(:name)")
-    int countItemsByName(String name);
+    @Query("SELECT name FROM shopping_items")
+    List<String> getAllNames();
 
-    @Query("SELECT COUNT(*) FROM shopping_items WHERE LOWER(name) = LOWER(:name) AND LOWER(added_by) = LOWER(:addedBy)")
-    int countItemsByNameAndAdder(String name, String addedBy);
+    // Items whose name or adder matches an FTS expression, see FtsQuery
+    @Query("SELECT shopping_items.* FROM shopping_items JOIN shopping_items_fts "
+            + "ON shopping_items.rowid = shopping_items_fts.rowid WHERE shopping_items_fts MATCH :match "
+            + "ORDER BY shopping_items.purchased ASC, shopping_items.created_at ASC LIMIT :limit")
+    List<ShoppingItem> search(String match, int limit);
 
     @Query("SELECT * FROM shopping_items WHERE id IN (:ids)")
     List<ShoppingItem> getItemsByIds(List<Long> ids);
@@ -1,6 +1,7 @@
 package com.example.split_basket.data;
 
 import android.content.Context;
+import android.database.sqlite.SQLiteConstraintException;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -10,34 +11,41 @@ import com.example.split_basket.EventLogManager;
 import com.example.split_basket.R;
 import com.example.split_basket.ShoppingItem;
 import com.example.split_basket.callback.OperationCallback;
+import com.example.split_basket.callback.QueryCallback;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 public class ShoppingListRepository {
 
     private static volatile ShoppingListRepository INSTANCE;
+    private final SplitBasketDatabase database;
     private final ShoppingListDao shoppingListDao;
-    private final ExecutorService executorService = Executors.newFixedThreadPool(2);
+    private final ItemFrequencyDao itemFrequencyDao;
+    private final NameDictionary nameDictionary;
+    private final InventoryDao inventoryDao;
+    private final DatabaseScheduler scheduler;
     private final Context appContext;
     private final EventLogManager eventLogManager;
     private volatile boolean seeded = false;
 
-    private ShoppingListRepository(@NonNull Context context) {
+    private ShoppingListRepository(@NonNull Context context, @NonNull DatabaseScheduler scheduler) {
         appContext = context.getApplicationContext();
-        SplitBasketDatabase database = SplitBasketDatabase.getInstance(appContext);
+        database = SplitBasketDatabase.getInstance(appContext);
         shoppingListDao = database.shoppingListDao();
+        itemFrequencyDao = database.itemFrequencyDao();
+        nameDictionary = NameDictionary.getInstance(appContext);
+        inventoryDao = database.inventoryDao();
         eventLogManager = EventLogManager.getInstance(appContext);
-        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+        this.scheduler = scheduler;
     }
 
     public static ShoppingListRepository getInstance(@NonNull Context context) {
         if (INSTANCE == null) {
             synchronized (ShoppingListRepository.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = new ShoppingListRepository(context.getApplicationContext());
+                    INSTANCE = new ShoppingListRepository(context.getApplicationContext(), DatabaseScheduler.getInstance());
                 }
             }
         }
@@ -47,11 +55,17 @@ public class ShoppingListRepository {
     public void ensureSeedData() {
         if (seeded)
             return;
-        executorService.execute(() -> {
+        scheduler.write(() -> {
             if (shoppingListDao.countItems() == 0) {
-                shoppingListDao.insert(new ShoppingItem(appContext.getString(R.string.bread), "Alice", 2));
-                shoppingListDao.insert(new ShoppingItem(appContext.getString(R.string.tissue), "David", 1));
-                shoppingListDao.insert(new ShoppingItem(appContext.getString(R.string.eggs), "Lily", 3));
+                shoppingListDao.insertIfAbsent(new ShoppingItem(appContext.getString(R.string.bread), "Alice", 2));
+                shoppingListDao.insertIfAbsent(new ShoppingItem(appContext.getString(R.string.tissue), "David", 1));
+                shoppingListDao.insertIfAbsent(new ShoppingItem(appContext.getString(R.string.eggs), "Lily", 3));
+            }
+            // Start the frequency index from what is listed and stocked today
+            if (itemFrequencyDao.count() == 0) {
+                List<String> names = new ArrayList<>(shoppingListDao.getAllNames());
+                names.addAll(inventoryDao.getAllNames());
+                itemFrequencyDao.recordUses(names, System.currentTimeMillis());
             }
             seeded = true;
         });
@@ -61,21 +75,34 @@ public class ShoppingListRepository {
         return shoppingListDao.observeItems();
     }
 
+    /**
+     * Search-as-you-type over item names and who added them, by word prefix
+     */
+    public DebouncedSearch<ShoppingItem> newSearch(@NonNull QueryCallback<List<ShoppingItem>> callback) {
+        return new DebouncedSearch<>(match -> shoppingListDao.search(match, DebouncedSearch.RESULT_LIMIT), callback);
+    }
+
     public void addItem(@NonNull ShoppingItem item) {
         addItem(item, null);
     }
 
     public void addItem(@NonNull ShoppingItem item, @Nullable OperationCallback callback) {
-        executorService.execute(() -> {
+        scheduler.write(() -> {
+            if (item.getName() != null) {
+                // A misspelling of a known item takes the known spelling, so the key index sees the duplicate
+                item.setName(nameDictionary.resolve(item.getName()));
+            }
             String name = item.getName() == null ? "" : item.getName().trim();
             String addedBy = item.getAddedBy() == null ? "" : item.getAddedBy().trim();
-            boolean existsSameUser = shoppingListDao.countItemsByNameAndAdder(name, addedBy) > 0;
-            if (existsSameUser) {
+            // The unique (name_key, added_by_key) index reports duplicates from the insert itself
+            long rowId = shoppingListDao.insertIfAbsent(item);
+            if (rowId == -1) {
                 notifyCallback(callback, false,
                         appContext.getString(R.string.error_item_duplicate_with_user, name, addedBy));
                 return;
             }
-            shoppingListDao.insert(item);
+            item.setId(rowId);
+            itemFrequencyDao.recordUse(item.getName(), System.currentTimeMillis());
             // Add log record
             eventLogManager.addLog(EventLogManager.EVENT_TYPE_SHOPPING_LIST_ADD, item.getName(), item.getQuantity(),
                     "");
@@ -84,9 +111,73 @@ public class ShoppingListRepository {
         });
     }
 
+    /**
+     * Most used item names, most recent uses weighing most
+     */
+    public LiveData<List<ItemFrequency>> observeFrequentItems(int limit) {
+        return itemFrequencyDao.observeTop(limit);
+    }
+
+    /**
+     * Add many items with one insert transaction; duplicates are skipped by the unique key index.
+     * The callback gets a single summary of how many were added and how many were already listed.
+     */
+    public void addItems(@NonNull List<ShoppingItem> items, @Nullable OperationCallback callback) {
+        if (items.isEmpty()) {
+            notifyCallback(callback, false, appContext.getString(R.string.items_added_summary, 0, 0));
+            return;
+        }
+        scheduler.write(() -> {
+            for (ShoppingItem item : items) {
+                if (item.getName() != null) {
+                    item.setName(nameDictionary.resolve(item.getName()));
+                }
+            }
+            long[][] inserted = new long[1][];
+            try {
+                // Rows and their frequency counts commit together
+                database.runInTransaction(() -> {
+                    inserted[0] = shoppingListDao.insertAllIfAbsent(items);
+                    List<String> addedNames = new ArrayList<>();
+                    for (int i = 0; i < inserted[0].length; i++) {
+                        if (inserted[0][i] != -1) {
+                            addedNames.add(items.get(i).getName());
+                        }
+                    }
+                    itemFrequencyDao.recordUses(addedNames, System.currentTimeMillis());
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+                notifyCallback(callback, false, appContext.getString(R.string.error_items_not_added));
+                return;
+            }
+            long[] rowIds = inserted[0];
+            int added = 0;
+            for (int i = 0; i < rowIds.length; i++) {
+                if (rowIds[i] == -1)
+                    continue;
+                ShoppingItem item = items.get(i);
+                item.setId(rowIds[i]);
+                added++;
+                // Add log record; the log buffer writes these as one batch
+                eventLogManager.addLog(EventLogManager.EVENT_TYPE_SHOPPING_LIST_ADD, item.getName(),
+                        item.getQuantity(), "");
+            }
+            int skipped = rowIds.length - added;
+            notifyCallback(callback, added > 0,
+                    appContext.getString(R.string.items_added_summary, added, skipped));
+        });
+    }
+
     public void updateItem(@NonNull ShoppingItem item) {
-        executorService.execute(() -> {
-            shoppingListDao.update(item);
+        scheduler.write(() -> {
+            try {
+                shoppingListDao.update(item);
+            } catch (SQLiteConstraintException e) {
+                // Renamed onto an item the same person already has listed
+                e.printStackTrace();
+                return;
+            }
             // Add log record
             eventLogManager.addLog(EventLogManager.EVENT_TYPE_SHOPPING_LIST_UPDATE, item.getName(), item.getQuantity(),
                     "");
@@ -96,11 +187,20 @@ public class ShoppingListRepository {
     public void markItemsPurchasedByIds(@NonNull List<Long> ids) {
         if (ids.isEmpty())
             return;
-        executorService.execute(() -> {
+        scheduler.write(() -> {
             // Get information of items marked as purchased
-            List<ShoppingItem> items = shoppingListDao.getItemsByIds(ids);
-            shoppingListDao.markPurchasedByIds(ids);
-            // Add log record for each item
+            List<ShoppingItem> items = new ArrayList<>();
+            try {
+                database.runInTransaction(() -> {
+                    items.addAll(shoppingListDao.getItemsByIds(ids));
+                    shoppingListDao.markPurchasedByIds(ids);
+                    itemFrequencyDao.recordUses(namesOf(items), System.currentTimeMillis());
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+                return;
+            }
+            // Add a log record for each item
             for (ShoppingItem item : items) {
                 eventLogManager.addLog(EventLogManager.EVENT_TYPE_SHOPPING_LIST_PURCHASE, item.getName(),
                         item.getQuantity(), "");
@@ -109,7 +209,7 @@ public class ShoppingListRepository {
     }
 
     public void deleteItem(@NonNull ShoppingItem item) {
-        executorService.execute(() -> {
+        scheduler.write(() -> {
             shoppingListDao.delete(item);
             // Add log record
             eventLogManager.addLog(EventLogManager.EVENT_TYPE_SHOPPING_LIST_REMOVE, item.getName(), item.getQuantity(),
@@ -117,30 +217,20 @@ public class ShoppingListRepository {
         });
     }
 
-    public List<ShoppingItem> getPurchasedItems() {
-        List<ShoppingItem> result = null;
-        try {
-            result = executorService.submit(shoppingListDao::getPurchasedItems).get();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return result != null ? result : java.util.Collections.emptyList();
+    public void getPurchasedItems(@NonNull QueryCallback<List<ShoppingItem>> callback) {
+        scheduler.query(shoppingListDao::getPurchasedItems, Collections.emptyList(), callback);
     }
 
     public void clearAll() {
-        executorService.execute(shoppingListDao::clearAll);
+        scheduler.write(shoppingListDao::clearAll);
     }
 
-    private void shutdown() {
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(3, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executorService.shutdownNow();
-            Thread.currentThread().interrupt();
+    static List<String> namesOf(@NonNull List<ShoppingItem> items) {
+        List<String> names = new ArrayList<>(items.size());
+        for (ShoppingItem item : items) {
+            names.add(item.getName());
         }
+        return names;
     }
 
     private void notifyCallback(@Nullable OperationCallback callback,
@@ -6,12 +6,19 @@ import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.example.split_basket.BillItem;
+import com.example.split_basket.BillLineConsumer;
+import com.example.split_basket.BillLineItem;
+import com.example.split_basket.BillParticipant;
 import com.example.split_basket.InventoryItem;
 import com.example.split_basket.ShoppingItem;
 
-@Database(entities = {ShoppingItem.class, InventoryItem.class, BillItem.class, LogEntry.class}, version = 4, exportSchema = false)
+@Database(entities = {ShoppingItem.class, InventoryItem.class, BillItem.class, LogEntry.class,
+        LogRollup.class, BillParticipant.class, MemberBalance.class, BillLineItem.class,
+        BillLineConsumer.class, ItemFrequency.class, InventoryFts.class, ShoppingItemFts.class, BillFts.class,
+        BillParticipantFts.class}, version = 21, exportSchema = false)
 public abstract class SplitBasketDatabase extends RoomDatabase {
 
     private static final String DB_NAME = "split_basket.db";
@@ -21,9 +28,23 @@ public abstract class SplitBasketDatabase extends RoomDatabase {
         if (INSTANCE == null) {
             synchronized (SplitBasketDatabase.class) {
                 if (INSTANCE == null) {
+                    // Room's own LiveData queries share the app-wide reader lane
+                    DatabaseScheduler scheduler = DatabaseScheduler.getInstance();
                     INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
                                     SplitBasketDatabase.class, DB_NAME)
+                            .setQueryExecutor(scheduler.getReadExecutor(DatabaseScheduler.Priority.UI))
+                            .openHelperFactory(new AutoVacuumOpenHelperFactory())
+                            .addMigrations(DatabaseMigrations.MIGRATION_4_21)
+                            // Only the unreleased versions between 4 and the current one are reset
                             .fallbackToDestructiveMigration()
+                            .addCallback(new RoomDatabase.Callback() {
+                                @Override
+                                public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                                    // REPLACE inserts delete the conflicting row; only with recursive
+                                    // triggers does that delete reach the FTS sync triggers
+                                    db.execSQL("PRAGMA recursive_triggers = ON");
+                                }
+                            })
                             .build();
                 }
             }
@@ -33,6 +54,8 @@ public abstract class SplitBasketDatabase extends RoomDatabase {
 
     public abstract ShoppingListDao shoppingListDao();
 
+    public abstract ItemFrequencyDao itemFrequencyDao();
+
     public abstract InventoryDao inventoryDao();
 
     public abstract BillDao billDao();
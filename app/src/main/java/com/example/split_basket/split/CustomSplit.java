@@ -0,0 +1,32 @@
+package com.example.split_basket.split;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Each participant's amount is entered directly; the total is their sum
+ */
+final class CustomSplit implements SplitStrategy {
+
+    @NonNull
+    @Override
+    public String getMethod() {
+        return SplitStrategies.METHOD_CUSTOM;
+    }
+
+    @Override
+    public boolean isTotalDerived() {
+        return true;
+    }
+
+    @Override
+    public long split(long totalMinor, long[] weights, int count, @NonNull long[] shares) {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            if (weights[i] < 0)
+                throw new IllegalArgumentException("Negative amount");
+            shares[i] = weights[i];
+            total = Math.addExact(total, weights[i]);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.split_basket.split;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Everyone pays the same; leftover minor units go one each to the first participants
+ */
+final class EqualSplit implements SplitStrategy {
+
+    @NonNull
+    @Override
+    public String getMethod() {
+        return SplitStrategies.METHOD_EQUAL;
+    }
+
+    @Override
+    public long split(long totalMinor, long[] weights, int count, @NonNull long[] shares) {
+        if (count <= 0)
+            throw new IllegalArgumentException("No participants");
+        if (totalMinor < 0)
+            throw new IllegalArgumentException("Negative total");
+        long base = totalMinor / count;
+        long remainder = totalMinor % count;
+        for (int i = 0; i < count; i++) {
+            shares[i] = base + (i < remainder ? 1 : 0);
+        }
+        return totalMinor;
+    }
+}
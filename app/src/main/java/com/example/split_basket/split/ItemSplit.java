@@ -0,0 +1,62 @@
+package com.example.split_basket.split;
+
+import androidx.annotation.NonNull;
+
+import com.example.split_basket.ShoppingItem;
+
+import java.util.List;
+
+/**
+ * Splits the total by what each participant put on the shopping list: by the number of items
+ * they added, or by the total quantity of those items.
+ */
+final class ItemSplit implements SplitStrategy {
+
+    private final String method;
+    private final boolean byQuantity;
+
+    ItemSplit(@NonNull String method, boolean byQuantity) {
+        this.method = method;
+        this.byQuantity = byQuantity;
+    }
+
+    @NonNull
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Weights are the item counts or quantities from {@link #weigh}
+     */
+    @Override
+    public long split(long totalMinor, long[] weights, int count, @NonNull long[] shares) {
+        long weightSum = 0;
+        for (int i = 0; i < count; i++) {
+            weightSum = Math.addExact(weightSum, weights[i]);
+        }
+        WeightedSplit.allocate(totalMinor, weights, count, weightSum, shares);
+        return totalMinor;
+    }
+
+    /**
+     * Fill {@code weights[0..participants.size())} from the shopping items each participant added.
+     * Items are matched to participants on {@link ShoppingItem#getAddedBy()}, ignoring case.
+     */
+    void weigh(@NonNull List<ShoppingItem> items, @NonNull List<String> participants, @NonNull long[] weights) {
+        int count = participants.size();
+        for (int i = 0; i < count; i++) {
+            weights[i] = 0;
+        }
+        for (int j = 0, n = items.size(); j < n; j++) {
+            ShoppingItem item = items.get(j);
+            String adder = item.getAddedBy().trim();
+            for (int i = 0; i < count; i++) {
+                if (participants.get(i).equalsIgnoreCase(adder)) {
+                    weights[i] += byQuantity ? item.getQuantity() : 1;
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.split_basket.split;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.split_basket.ShoppingItem;
+
+import java.util.List;
+
+/**
+ * The available split strategies, looked up by the method name stored on a bill
+ */
+public final class SplitStrategies {
+
+    public static final String METHOD_EQUAL = "Equal";
+    public static final String METHOD_CUSTOM = "Custom";
+    public static final String METHOD_PERCENTAGE = "Percentage";
+    public static final String METHOD_SHARES = "Shares";
+    public static final String METHOD_BY_ITEM = "By item";
+    public static final String METHOD_BY_QUANTITY = "By quantity";
+
+    public static final SplitStrategy EQUAL = new EqualSplit();
+    public static final SplitStrategy CUSTOM = new CustomSplit();
+    public static final SplitStrategy PERCENTAGE = new WeightedSplit(METHOD_PERCENTAGE, true);
+    public static final SplitStrategy SHARES = new WeightedSplit(METHOD_SHARES, false);
+    public static final SplitStrategy BY_ITEM = new ItemSplit(METHOD_BY_ITEM, false);
+    public static final SplitStrategy BY_QUANTITY = new ItemSplit(METHOD_BY_QUANTITY, true);
+
+    private SplitStrategies() {
+    }
+
+    /**
+     * Strategy for a stored method name; unknown names (including the legacy "Equal Split") are equal splits
+     */
+    @NonNull
+    public static SplitStrategy forMethod(@Nullable String method) {
+        if (method == null)
+            return EQUAL;
+        switch (method) {
+            case METHOD_CUSTOM:
+                return CUSTOM;
+            case METHOD_PERCENTAGE:
+                return PERCENTAGE;
+            case METHOD_SHARES:
+                return SHARES;
+            case METHOD_BY_ITEM:
+                return BY_ITEM;
+            case METHOD_BY_QUANTITY:
+                return BY_QUANTITY;
+            default:
+                return EQUAL;
+        }
+    }
+
+    /**
+     * Whether bills with this method store a fixed share per participant, rather than an equal split of the total
+     */
+    public static boolean hasFixedShares(@Nullable String method) {
+        return forMethod(method) != EQUAL;
+    }
+
+    /**
+     * Whether the strategy takes its weights from the shopping list
+     */
+    public static boolean usesShoppingItems(@NonNull SplitStrategy strategy) {
+        return strategy instanceof ItemSplit;
+    }
+
+    /**
+     * Fill weights for a shopping-list based strategy, see {@link #usesShoppingItems}
+     */
+    public static void weigh(@NonNull SplitStrategy strategy, @NonNull List<ShoppingItem> items,
+                             @NonNull List<String> participants, @NonNull long[] weights) {
+        ((ItemSplit) strategy).weigh(items, participants, weights);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.split_basket.split;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Turns a bill total and per-participant inputs into per-participant shares in minor units.
+ * <p>
+ * Implementations are pure and allocation-free: the caller owns the input and output arrays,
+ * so one pair of arrays can be reused for every recalculation while the user types.
+ */
+public interface SplitStrategy {
+
+    /**
+     * Name stored in the bill's method column
+     */
+    @NonNull
+    String getMethod();
+
+    /**
+     * True when the bill total is the sum of the inputs rather than entered by the user
+     */
+    default boolean isTotalDerived() {
+        return false;
+    }
+
+    /**
+     * Write each participant's share into {@code shares[0..count)}. The shares always add up to the
+     * returned total exactly.
+     *
+     * @param totalMinor bill total in minor units, ignored when {@link #isTotalDerived()}
+     * @param weights    per-participant input; its meaning depends on the strategy (amounts,
+     *                   basis points, share counts or item quantities). May be null for equal splits.
+     * @param count      number of participants
+     * @param shares     output, at least {@code count} long
+     * @return bill total in minor units
+     * @throws IllegalArgumentException if the inputs cannot be split
+     */
+    long split(long totalMinor, long[] weights, int count, @NonNull long[] shares);
+}
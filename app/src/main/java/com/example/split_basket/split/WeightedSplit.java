@@ -0,0 +1,64 @@
+package com.example.split_basket.split;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Splits the total in proportion to non-negative weights: share counts, or basis points when
+ * {@code percentages} is set, in which case the weights must add up to exactly 100%.
+ */
+final class WeightedSplit implements SplitStrategy {
+
+    static final long FULL_PERCENTAGE = 10_000; // 100.00% in basis points
+
+    private final String method;
+    private final boolean percentages;
+
+    WeightedSplit(@NonNull String method, boolean percentages) {
+        this.method = method;
+        this.percentages = percentages;
+    }
+
+    @NonNull
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public long split(long totalMinor, long[] weights, int count, @NonNull long[] shares) {
+        long weightSum = 0;
+        for (int i = 0; i < count; i++) {
+            if (weights[i] < 0)
+                throw new IllegalArgumentException("Negative weight");
+            weightSum = Math.addExact(weightSum, weights[i]);
+        }
+        if (percentages && weightSum != FULL_PERCENTAGE)
+            throw new IllegalArgumentException("Percentages must add up to 100");
+        allocate(totalMinor, weights, count, weightSum, shares);
+        return totalMinor;
+    }
+
+    /**
+     * Proportional allocation that adds up exactly: each share is rounded down, then the leftover
+     * minor units (fewer than the number of weighted participants) go one each to the first
+     * participants with a non-zero weight.
+     */
+    static void allocate(long totalMinor, long[] weights, int count, long weightSum, @NonNull long[] shares) {
+        if (count <= 0 || weightSum <= 0)
+            throw new IllegalArgumentException("Nothing to split by");
+        if (totalMinor < 0)
+            throw new IllegalArgumentException("Negative total");
+        long allocated = 0;
+        for (int i = 0; i < count; i++) {
+            shares[i] = Math.multiplyExact(totalMinor, weights[i]) / weightSum;
+            allocated += shares[i];
+        }
+        long remainder = totalMinor - allocated;
+        for (int i = 0; i < count && remainder > 0; i++) {
+            if (weights[i] > 0) {
+                shares[i]++;
+                remainder--;
+            }
+        }
+    }
+}
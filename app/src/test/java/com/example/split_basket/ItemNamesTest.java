@@ -0,0 +1,44 @@
+package com.example.split_basket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class ItemNamesTest {
+
+    @Test
+    public void canonical_foldsPluralsAndPackNotes() {
+        assertEquals("egg", ItemNames.canonical("Eggs"));
+        assertEquals("egg", ItemNames.canonical("egg"));
+        assertEquals("egg", ItemNames.canonical("eggs (x12)"));
+        assertEquals("egg", ItemNames.canonical("12 eggs"));
+        assertEquals("tomato", ItemNames.canonical("Tomatoes"));
+        assertEquals("strawberry", ItemNames.canonical("Strawberries"));
+        assertEquals("cookie", ItemNames.canonical("cookies"));
+        assertEquals("peach", ItemNames.canonical("Peaches"));
+    }
+
+    @Test
+    public void canonical_keepsWordsThatAreNotPlurals() {
+        assertEquals("hummus", ItemNames.canonical("Hummus"));
+        assertEquals("molasses", ItemNames.canonical("molasses"));
+        assertEquals("milk 2l", ItemNames.canonical("Milk 2L"));
+        assertEquals("12", ItemNames.canonical("12"));
+    }
+
+    @Test
+    public void canonical_mapsSynonyms() {
+        assertEquals("spring onion", ItemNames.canonical("Green onions"));
+        assertEquals("spring onion", ItemNames.canonical("scallions"));
+        assertEquals("eggplant", ItemNames.canonical("Aubergine"));
+    }
+
+    @Test
+    public void guessCategory_looksUpWords() {
+        assertEquals("Fruit", ItemNames.guessCategory("Strawberries"));
+        assertEquals("Meat", ItemNames.guessCategory("Chicken breasts"));
+        assertEquals("Vegetable", ItemNames.guessCategory("scallions"));
+        assertNull(ItemNames.guessCategory("Pepperoni pizza"));
+    }
+}
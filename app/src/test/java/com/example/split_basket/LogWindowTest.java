@@ -0,0 +1,52 @@
+package com.example.split_basket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class LogWindowTest {
+
+    private static EventLogManager.LogEntry entry(long id) {
+        return new EventLogManager.LogEntry(id, id, "TYPE", "entry " + id, "user");
+    }
+
+    @Test
+    public void prepend_keepsNewestFirstWithinCapacity() {
+        LogWindow window = new LogWindow(3);
+        for (long id = 1; id <= 10; id++) {
+            window.prepend(entry(id));
+        }
+        List<EventLogManager.LogEntry> logs = window.snapshot();
+        assertEquals(3, logs.size());
+        assertEquals(10, logs.get(0).id());
+        assertEquals(8, logs.get(2).id());
+    }
+
+    @Test
+    public void snapshot_isStableAcrossLaterUpdates() {
+        LogWindow window = new LogWindow(5);
+        window.prepend(entry(1));
+        List<EventLogManager.LogEntry> before = window.snapshot();
+        assertSame(before, window.snapshot());
+        window.prepend(entry(2));
+        assertEquals(1, before.size());
+        assertEquals(2, window.snapshot().size());
+    }
+
+    @Test
+    public void replaceAndShrink() {
+        LogWindow window = new LogWindow(5);
+        window.replace(Arrays.asList(entry(4), entry(3), entry(2), entry(1)));
+        window.setCapacity(2);
+        List<EventLogManager.LogEntry> logs = window.snapshot();
+        assertEquals(2, logs.size());
+        assertEquals(4, logs.get(0).id());
+        window.clear();
+        assertTrue(window.isEmpty());
+    }
+}
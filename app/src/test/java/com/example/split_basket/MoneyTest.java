@@ -0,0 +1,38 @@
+package com.example.split_basket;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class MoneyTest {
+
+    @Test
+    public void parse_readsMinorUnitsInDefaultCurrency() {
+        Money withSymbol = Money.parse("$ 389.50");
+        assertEquals(38950, withSymbol.getMinor());
+        assertEquals(Money.DEFAULT_CURRENCY, withSymbol.getCurrency());
+
+        Money yuan = Money.parse("12.3");
+        assertEquals(1230, yuan.getMinor());
+        assertEquals(Money.DEFAULT_CURRENCY, yuan.getCurrency());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parse_rejectsText() {
+        Money.parse("abc");
+    }
+
+    @Test
+    public void allocate_distributesRemainderExactly() {
+        assertArrayEquals(new long[]{34, 33, 33}, Money.of(100, "CNY").allocate(3));
+        assertArrayEquals(new long[]{-34, -33, -33}, Money.of(-100, "CNY").allocate(3));
+    }
+
+    @Test
+    public void format_alwaysHasTwoDecimals() {
+        assertEquals("$ 389.50", Money.of(38950, "USD").format());
+        assertEquals("¥ 0.05", Money.of(5, "CNY").format());
+        assertEquals("-1.01", Money.of(-101, "CNY").toDecimalString());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.split_basket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SettlementEngineTest {
+
+    @Test
+    public void settle_largestDebtorPaysLargestCreditor() {
+        Map<String, Long> balances = new LinkedHashMap<>();
+        balances.put("User1", 6000L);
+        balances.put("User2", -4000L);
+        balances.put("User3", -2000L);
+
+        List<SettlementEngine.Transfer> transfers = SettlementEngine.settle(balances);
+
+        assertEquals(2, transfers.size());
+        assertEquals(new SettlementEngine.Transfer("User2", "User1", 4000), transfers.get(0));
+        assertEquals(new SettlementEngine.Transfer("User3", "User1", 2000), transfers.get(1));
+    }
+
+    @Test
+    public void settle_clearsEveryBalance() {
+        Map<String, Long> balances = new HashMap<>();
+        balances.put("A", 1001L);
+        balances.put("B", 250L);
+        balances.put("C", -333L);
+        balances.put("D", -918L);
+        balances.put("E", 0L);
+
+        List<SettlementEngine.Transfer> transfers = SettlementEngine.settle(balances);
+
+        Map<String, Long> remaining = new HashMap<>(balances);
+        for (SettlementEngine.Transfer transfer : transfers) {
+            assertTrue(transfer.amountMinor() > 0);
+            remaining.put(transfer.from(), remaining.get(transfer.from()) + transfer.amountMinor());
+            remaining.put(transfer.to(), remaining.get(transfer.to()) - transfer.amountMinor());
+        }
+        for (long left : remaining.values()) {
+            assertEquals(0, left);
+        }
+        assertTrue(transfers.size() <= 3);
+    }
+
+    @Test
+    public void settle_nothingOwed() {
+        Map<String, Long> balances = new HashMap<>();
+        balances.put("A", 0L);
+        assertTrue(SettlementEngine.settle(balances).isEmpty());
+    }
+}
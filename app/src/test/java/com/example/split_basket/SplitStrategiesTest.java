@@ -0,0 +1,74 @@
+package com.example.split_basket;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.example.split_basket.split.SplitStrategies;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class SplitStrategiesTest {
+
+    private final long[] shares = new long[4];
+
+    @Test
+    public void equal_givesLeftoverToFirstParticipants() {
+        assertEquals(1000, SplitStrategies.EQUAL.split(1000, null, 3, shares));
+        assertArrayEquals(new long[]{334, 333, 333}, Arrays.copyOf(shares, 3));
+    }
+
+    @Test
+    public void custom_totalIsSumOfAmounts() {
+        long[] amounts = {1250, 300};
+        assertEquals(1550, SplitStrategies.CUSTOM.split(0, amounts, 2, shares));
+        assertArrayEquals(amounts, Arrays.copyOf(shares, 2));
+    }
+
+    @Test
+    public void percentage_addsUpExactly() {
+        long[] basisPoints = {3333, 3333, 3334};
+        assertEquals(100, SplitStrategies.PERCENTAGE.split(100, basisPoints, 3, shares));
+        assertArrayEquals(new long[]{34, 33, 33}, Arrays.copyOf(shares, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void percentage_rejectsIncompleteTotal() {
+        SplitStrategies.PERCENTAGE.split(100, new long[]{5000, 4000}, 2, shares);
+    }
+
+    @Test
+    public void shares_splitsProportionally() {
+        long[] weights = {200, 100, 0, 100};
+        assertEquals(1001, SplitStrategies.SHARES.split(1001, weights, 4, shares));
+        assertArrayEquals(new long[]{501, 250, 0, 250}, shares);
+    }
+
+    @Test
+    public void byQuantity_weighsShoppingItemsPerAdder() {
+        List<ShoppingItem> items = Arrays.asList(
+                new ShoppingItem("Milk", "User1", 3),
+                new ShoppingItem("Eggs", "user2", 1),
+                new ShoppingItem("Bread", "User3", 2));
+        List<String> participants = Arrays.asList("User1", "User2");
+        long[] weights = new long[2];
+
+        SplitStrategies.weigh(SplitStrategies.BY_QUANTITY, items, participants, weights);
+        assertArrayEquals(new long[]{3, 1}, weights);
+        SplitStrategies.BY_QUANTITY.split(400, weights, 2, shares);
+        assertArrayEquals(new long[]{300, 100}, Arrays.copyOf(shares, 2));
+
+        SplitStrategies.weigh(SplitStrategies.BY_ITEM, items, participants, weights);
+        assertArrayEquals(new long[]{1, 1}, weights);
+    }
+
+    @Test
+    public void forMethod_fallsBackToEqual() {
+        assertSame(SplitStrategies.EQUAL, SplitStrategies.forMethod("Equal Split"));
+        assertSame(SplitStrategies.EQUAL, SplitStrategies.forMethod(null));
+        assertSame(SplitStrategies.SHARES, SplitStrategies.forMethod(SplitStrategies.METHOD_SHARES));
+    }
+}
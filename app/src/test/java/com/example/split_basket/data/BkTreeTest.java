@@ -0,0 +1,46 @@
+package com.example.split_basket.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class BkTreeTest {
+
+    @Test
+    public void distance_countsEdits() {
+        assertEquals(0, BkTree.distance("banana", "banana"));
+        assertEquals(1, BkTree.distance("bananna", "banana"));
+        assertEquals(3, BkTree.distance("kitten", "sitting"));
+        assertEquals(4, BkTree.distance("", "milk"));
+    }
+
+    @Test
+    public void search_findsNearWordsNearestFirst() {
+        BkTree tree = new BkTree();
+        for (String word : new String[]{"banana", "bandana", "apple", "milk", "silk", "bread"}) {
+            assertTrue(tree.add(word));
+        }
+        assertFalse(tree.add("milk"));
+
+        assertEquals(Arrays.asList("banana", "bandana"), tree.search("bananna", 2));
+        assertEquals(Collections.singletonList("apple"), tree.search("appel", 2));
+        assertEquals(Arrays.asList("milk", "silk"), tree.search("milk", 1));
+        assertTrue(tree.search("cheese", 2).isEmpty());
+    }
+
+    @Test
+    public void nameDictionary_foldsOnlyUnambiguousTypos() {
+        assertTrue(NameDictionary.isUnambiguousTypo("banaan", "banana"));
+        assertTrue(NameDictionary.isUnambiguousTypo("strawbery", "strawberry"));
+        assertFalse(NameDictionary.isUnambiguousTypo("paste", "pasta"));
+        assertFalse(NameDictionary.isUnambiguousTypo("batter", "butter"));
+        assertFalse(NameDictionary.isUnambiguousTypo("bananna", "banana"));
+        assertFalse(NameDictionary.isUnambiguousTypo("pear", "paer"));
+        assertFalse(NameDictionary.isUnambiguousTypo("milk 1l", "milk 2l"));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.split_basket.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class FtsQueryTest {
+
+    @Test
+    public void prefixMatch_prefixesEveryWord() {
+        assertEquals("green* app*", FtsQuery.prefixMatch("Green app"));
+        assertEquals("milk*", FtsQuery.prefixMatch("  milk  "));
+    }
+
+    @Test
+    public void prefixMatch_dropsFtsSyntax() {
+        assertEquals("a* or* b*", FtsQuery.prefixMatch("a OR b"));
+        assertEquals("x* y*", FtsQuery.prefixMatch("\"x\" -y*"));
+        assertEquals("番茄*", FtsQuery.prefixMatch("番茄"));
+    }
+
+    @Test
+    public void prefixMatch_returnsNullWithoutWords() {
+        assertNull(FtsQuery.prefixMatch(null));
+        assertNull(FtsQuery.prefixMatch(""));
+        assertNull(FtsQuery.prefixMatch(" *()\" "));
+    }
+}